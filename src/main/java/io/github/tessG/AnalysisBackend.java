@@ -0,0 +1,42 @@
+package io.github.tessG;
+
+/**
+ * Where analysis prompts are answered
+ * ClaudeAnalysisService builds the prompts and parses the replies; a backend only
+ * turns one request into response text. Chosen by hivemind.analysis.backend.
+ */
+public interface AnalysisBackend {
+
+    String getName();
+
+    /**
+     * Model label for metrics
+     */
+    String getModel();
+
+    AnalysisResponse complete(AnalysisRequest request);
+
+    /**
+     * Whether responses may go into the shared response cache
+     */
+    default boolean isCacheable() {
+        return true;
+    }
+
+    /**
+     * Whether a failed call is worth retrying (rate limited, overloaded, timed out)
+     */
+    default boolean isTransient(RuntimeException e) {
+        return false;
+    }
+
+    /**
+     * Server-requested wait before the next attempt, or 0 if none
+     */
+    default long getRetryAfterMs(RuntimeException e) {
+        return 0;
+    }
+
+    default void close() {
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.tessG;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits statements into token-budgeted chunks for map-reduce analysis
+ * Statements are dealt round-robin into equally sized chunks, so every chunk
+ * mixes all categories (contradictions need opposing statements side by side).
+ */
+public class AnalysisChunker {
+
+    // Rough token estimate for Danish text; a numbered prompt line adds a few tokens
+    private static final double CHARS_PER_TOKEN = 3.5;
+    private static final int TOKENS_PER_LINE = 4;
+
+    public static int estimateTokens(String text) {
+        return (int) Math.ceil(text.length() / CHARS_PER_TOKEN) + TOKENS_PER_LINE;
+    }
+
+    public static int estimateTokens(List<String> statements) {
+        int total = 0;
+        for (String statement : statements) total += estimateTokens(statement);
+        return total;
+    }
+
+    /**
+     * Balanced chunks that each stay near the budget; a single chunk if everything fits
+     */
+    public static List<List<String>> split(List<String> statements, int chunkTokens) {
+        int total = estimateTokens(statements);
+        int chunkCount = Math.max(1, (int) Math.ceil((double) total / chunkTokens));
+
+        List<List<String>> chunks = new ArrayList<>(chunkCount);
+        for (int c = 0; c < chunkCount; c++) chunks.add(new ArrayList<>());
+        for (int i = 0; i < statements.size(); i++) {
+            chunks.get(i % chunkCount).add(statements.get(i));
+        }
+        // An empty list still makes one (empty) chunk, so callers take the single-call path
+        if (statements.isEmpty()) return chunks;
+        chunks.removeIf(List::isEmpty);
+        return chunks;
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.tessG;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming decoders for the analysis tool inputs (see AnalysisSchemas)
+ * One forward pass with a Gson JsonReader straight into the result records;
+ * unknown fields are skipped, a missing required field is an error.
+ */
+public class AnalysisJson {
+
+    public static SummaryResult readSummary(String json) {
+        return read(json, reader -> readFields(reader).summary());
+    }
+
+    public static List<ContradictionResult> readContradictions(String json) {
+        return read(json, reader -> readFields(reader).contradictions());
+    }
+
+    public static List<String> readSuggestions(String json) {
+        return read(json, reader -> readFields(reader).suggestions());
+    }
+
+    /**
+     * All three sections of the combined tool in one pass
+     */
+    public static DelphiAnalysis readCombined(String json) {
+        return read(json, reader -> {
+            Fields fields = readFields(reader);
+            List<Map<String, Object>> contradictions = new ArrayList<>();
+            for (ContradictionResult contradiction : fields.contradictions()) {
+                contradictions.add(contradiction.toMap());
+            }
+            return new DelphiAnalysis(fields.summary().toMap(), contradictions, fields.suggestions());
+        });
+    }
+
+    /**
+     * Top-level object: strings kept by name, the two known arrays decoded in place
+     */
+    private static Fields readFields(JsonReader reader) throws IOException {
+        Fields fields = new Fields();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "contradictions":
+                    fields.contradictions = readContradictionArray(reader);
+                    break;
+                case "suggestions":
+                    fields.suggestions = readStringArray(reader);
+                    break;
+                default:
+                    if (reader.peek() == JsonToken.STRING) {
+                        fields.strings.put(name, reader.nextString());
+                    } else {
+                        reader.skipValue();
+                    }
+            }
+        }
+        reader.endObject();
+        return fields;
+    }
+
+    private static List<ContradictionResult> readContradictionArray(JsonReader reader) throws IOException {
+        List<ContradictionResult> contradictions = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String statement1 = null, statement2 = null, theme = null, explanation = null;
+            double tension = Double.NaN;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "statement1": statement1 = reader.nextString(); break;
+                    case "statement2": statement2 = reader.nextString(); break;
+                    // nextDouble also accepts a quoted number
+                    case "tension": tension = reader.nextDouble(); break;
+                    case "theme": theme = reader.nextString(); break;
+                    case "explanation": explanation = reader.nextString(); break;
+                    default: reader.skipValue();
+                }
+            }
+            reader.endObject();
+            contradictions.add(new ContradictionResult(
+                    require(statement1, "statement1"), require(statement2, "statement2"),
+                    Double.isNaN(tension) ? 0.5 : tension,
+                    theme == null ? "" : theme, explanation == null ? "" : explanation));
+        }
+        reader.endArray();
+        return contradictions;
+    }
+
+    private static List<String> readStringArray(JsonReader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) values.add(reader.nextString());
+        reader.endArray();
+        return values;
+    }
+
+    private static <T> T require(T value, String field) {
+        if (value == null) throw new IllegalStateException("Analysis JSON is missing \"" + field + "\"");
+        return value;
+    }
+
+    private static <T> T read(String json, Decoder<T> decoder) {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            return decoder.decode(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed analysis JSON: " + e.getMessage(), e);
+        }
+    }
+
+    private interface Decoder<T> {
+        T decode(JsonReader reader) throws IOException;
+    }
+
+    private static class Fields {
+        final Map<String, String> strings = new HashMap<>();
+        List<ContradictionResult> contradictions;
+        List<String> suggestions;
+
+        SummaryResult summary() {
+            return new SummaryResult(require(strings.get("headline"), "headline"),
+                    require(strings.get("summary"), "summary"),
+                    require(strings.get("keyInsight"), "keyInsight"),
+                    require(strings.get("funnyStatement"), "funnyStatement"));
+        }
+
+        List<ContradictionResult> contradictions() {
+            return require(contradictions, "contradictions");
+        }
+
+        List<String> suggestions() {
+            return require(suggestions, "suggestions");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.tessG;
+
+/**
+ * One single-turn completion request
+ * The kind names the JSON shape the prompt asks for, so a backend that does
+ * not read the prompt (the offline stub) can still answer with a valid schema.
+ * The optional shared prefix (the statement list) comes before the prompt and
+ * is identical across the calls for one board, so the API can cache it.
+ */
+public class AnalysisRequest {
+
+    public enum Kind {
+        SUMMARY,        // headline, summary, keyInsight, funnyStatement
+        CONTRADICTIONS, // contradictions[]
+        SUGGESTIONS,    // suggestions[]
+        COMBINED,       // all of the above in one object
+        POSTER          // generated HTML page
+    }
+
+    private final Kind kind;
+    private final String sharedPrefix;
+    private final String prompt;
+    private final long maxTokens;
+
+    public AnalysisRequest(Kind kind, String prompt, long maxTokens) {
+        this(kind, null, prompt, maxTokens);
+    }
+
+    public AnalysisRequest(Kind kind, String sharedPrefix, String prompt, long maxTokens) {
+        this.kind = kind;
+        this.sharedPrefix = sharedPrefix;
+        this.prompt = prompt;
+        this.maxTokens = maxTokens;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Statement block shared with the other calls for the same board, or null
+     */
+    public String getSharedPrefix() {
+        return sharedPrefix;
+    }
+
+    /**
+     * Task-specific instructions (the whole prompt when there is no shared prefix)
+     */
+    public String getPrompt() {
+        return prompt;
+    }
+
+    public String getFullPrompt() {
+        return sharedPrefix == null ? prompt : sharedPrefix + "\n" + prompt;
+    }
+
+    public long getMaxTokens() {
+        return maxTokens;
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.tessG;
+
+/**
+ * Text of one completion plus what it cost
+ * Token counts come from the API's usage block (estimated by the stub);
+ * firstByteMs is the time until the first streamed event arrived.
+ */
+public class AnalysisResponse {
+    private final String text;
+    private final long inputTokens;
+    private final long outputTokens;
+    private final long cacheReadTokens;
+    private final long cacheWriteTokens;
+    private final long firstByteMs;
+
+    public AnalysisResponse(String text, long inputTokens, long outputTokens,
+                            long cacheReadTokens, long cacheWriteTokens, long firstByteMs) {
+        this.text = text;
+        this.inputTokens = inputTokens;
+        this.outputTokens = outputTokens;
+        this.cacheReadTokens = cacheReadTokens;
+        this.cacheWriteTokens = cacheWriteTokens;
+        this.firstByteMs = firstByteMs;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Uncached input tokens
+     */
+    public long getInputTokens() {
+        return inputTokens;
+    }
+
+    public long getOutputTokens() {
+        return outputTokens;
+    }
+
+    public long getCacheReadTokens() {
+        return cacheReadTokens;
+    }
+
+    public long getCacheWriteTokens() {
+        return cacheWriteTokens;
+    }
+
+    public long getFirstByteMs() {
+        return firstByteMs;
+    }
+}
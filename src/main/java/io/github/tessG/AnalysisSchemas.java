@@ -0,0 +1,142 @@
+package io.github.tessG;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON schemas for the analysis tools
+ * Claude answers by calling one of these tools, so its output is the tool
+ * input: JSON that follows the schema instead of free text around a JSON blob.
+ * All tools are sent on every call (same order, same text) so the tool
+ * definitions never break the prompt cache; the prompt names the tool to use.
+ */
+public class AnalysisSchemas {
+
+    public static final String SUMMARY_TOOL = "report_summary";
+    public static final String CONTRADICTIONS_TOOL = "report_contradictions";
+    public static final String SUGGESTIONS_TOOL = "report_suggestions";
+    public static final String COMBINED_TOOL = "report_analysis";
+
+    /**
+     * Tool name for a request kind, or null for free-text kinds (the HTML poster)
+     */
+    public static String toolName(AnalysisRequest.Kind kind) {
+        switch (kind) {
+            case SUMMARY:
+                return SUMMARY_TOOL;
+            case CONTRADICTIONS:
+                return CONTRADICTIONS_TOOL;
+            case SUGGESTIONS:
+                return SUGGESTIONS_TOOL;
+            case COMBINED:
+                return COMBINED_TOOL;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Tool names in the fixed order they are sent
+     */
+    public static List<String> toolNames() {
+        return List.of(SUMMARY_TOOL, CONTRADICTIONS_TOOL, SUGGESTIONS_TOOL, COMBINED_TOOL);
+    }
+
+    public static String description(String toolName) {
+        switch (toolName) {
+            case SUMMARY_TOOL:
+                return "Rapportér en samlet analyse af student-evalueringerne";
+            case CONTRADICTIONS_TOOL:
+                return "Rapportér modsætningspar blandt udsagnene";
+            case SUGGESTIONS_TOOL:
+                return "Rapportér konkrete anbefalinger til underviserne";
+            case COMBINED_TOOL:
+                return "Rapportér analyse, modsætninger og anbefalinger i ét svar";
+            default:
+                throw new IllegalArgumentException("Unknown analysis tool: " + toolName);
+        }
+    }
+
+    /**
+     * The "properties" object of the tool's input schema
+     */
+    public static Map<String, Object> properties(String toolName) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        switch (toolName) {
+            case SUMMARY_TOOL:
+                properties.putAll(summaryProperties());
+                break;
+            case CONTRADICTIONS_TOOL:
+                properties.put("contradictions", contradictionsProperty());
+                break;
+            case SUGGESTIONS_TOOL:
+                properties.put("suggestions", suggestionsProperty());
+                break;
+            case COMBINED_TOOL:
+                properties.putAll(summaryProperties());
+                properties.put("contradictions", contradictionsProperty());
+                properties.put("suggestions", suggestionsProperty());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown analysis tool: " + toolName);
+        }
+        return properties;
+    }
+
+    public static List<String> required(String toolName) {
+        return List.copyOf(properties(toolName).keySet());
+    }
+
+    private static Map<String, Object> summaryProperties() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("headline", string("En kort sætning (8-12 ord) der fanger essensen af feedbacken"));
+        properties.put("summary", string("2-3 sætninger der opsummerer hovedtendenserne"));
+        properties.put("keyInsight", string("En vigtig indsigt eller observation"));
+        properties.put("funnyStatement", string("Et udsagn ordret, som beskrevet i opgaven"));
+        return properties;
+    }
+
+    private static Map<String, Object> contradictionsProperty() {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("statement1", string("Præcis tekst fra udsagn A"));
+        item.put("statement2", string("Præcis tekst fra udsagn B"));
+        Map<String, Object> tension = new LinkedHashMap<>();
+        tension.put("type", "number");
+        tension.put("minimum", 0);
+        tension.put("maximum", 1);
+        tension.put("description", "Hvor stærk spændingen er, 0-1");
+        item.put("tension", tension);
+        item.put("theme", string("Kort tema-navn"));
+        item.put("explanation", string("Kort forklaring"));
+        return array(object(item));
+    }
+
+    private static Map<String, Object> suggestionsProperty() {
+        return array(string("Konkret, handlingsorienteret anbefaling"));
+    }
+
+    // Insertion-ordered maps only: the serialized tools must be byte-identical on every call
+
+    private static Map<String, Object> string(String description) {
+        Map<String, Object> string = new LinkedHashMap<>();
+        string.put("type", "string");
+        string.put("description", description);
+        return string;
+    }
+
+    private static Map<String, Object> array(Map<String, Object> items) {
+        Map<String, Object> array = new LinkedHashMap<>();
+        array.put("type", "array");
+        array.put("items", items);
+        return array;
+    }
+
+    private static Map<String, Object> object(Map<String, Object> properties) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("type", "object");
+        object.put("properties", properties);
+        object.put("required", List.copyOf(properties.keySet()));
+        return object;
+    }
+}
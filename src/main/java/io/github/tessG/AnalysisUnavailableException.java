@@ -0,0 +1,17 @@
+package io.github.tessG;
+
+/**
+ * The analysis backend could not answer: retries exhausted or the circuit breaker is open
+ */
+public class AnalysisUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AnalysisUnavailableException(String message) {
+        super(message);
+    }
+
+    public AnalysisUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
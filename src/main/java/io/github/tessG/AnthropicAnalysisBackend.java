@@ -0,0 +1,306 @@
+package io.github.tessG;
+
+import com.anthropic.client.AnthropicClient;
+import com.anthropic.client.okhttp.AnthropicOkHttpClient;
+import com.anthropic.core.JsonValue;
+import com.anthropic.core.http.StreamResponse;
+import com.anthropic.errors.AnthropicIoException;
+import com.anthropic.errors.AnthropicServiceException;
+import com.anthropic.errors.NotFoundException;
+import com.anthropic.errors.SseException;
+import com.anthropic.helpers.MessageAccumulator;
+import com.anthropic.models.messages.CacheControlEphemeral;
+import com.anthropic.models.messages.ContentBlock;
+import com.anthropic.models.messages.ContentBlockParam;
+import com.anthropic.models.messages.Message;
+import com.anthropic.models.messages.MessageCreateParams;
+import com.anthropic.models.messages.RawMessageStreamEvent;
+import com.anthropic.models.messages.TextBlockParam;
+import com.anthropic.models.messages.Tool;
+import com.anthropic.models.messages.ToolChoiceAny;
+import com.anthropic.models.messages.ToolUseBlock;
+import com.anthropic.models.messages.Usage;
+import com.anthropic.models.messages.batches.BatchCreateParams;
+import com.anthropic.models.messages.batches.BatchResultsParams;
+import com.anthropic.models.messages.batches.BatchRetrieveParams;
+import com.anthropic.models.messages.batches.MessageBatch;
+import com.anthropic.models.messages.batches.MessageBatchIndividualResponse;
+import com.google.gson.Gson;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backend that sends every request to the Anthropic Messages API
+ * Owns one AnthropicClient: one OkHttp dispatcher and connection pool
+ * (keep-alive, HTTP/2 via ALPN) reused by every call.
+ * A shared prefix is sent as its own text block marked cache_control ephemeral;
+ * the API only caches it once it is long enough (about 1024 tokens for Sonnet).
+ * Responses are streamed so the time to the first event can be measured;
+ * the events are accumulated back into one Message.
+ * Analysis kinds are answered through tool use: every analysis tool is offered
+ * (tool_choice any) and the tool input is returned as JSON text.
+ * The same requests can be sent in bulk through the Message Batches API.
+ */
+public class AnthropicAnalysisBackend implements AnalysisBackend, BatchEndpoint {
+
+    public static final String NAME = "anthropic";
+
+    private static final Gson GSON = new Gson();
+    private static final List<Tool> ANALYSIS_TOOLS = buildTools();
+
+    private final String model;
+    private final AnthropicClient client;
+
+    public AnthropicAnalysisBackend(String model, int timeoutSeconds, int maxRetries) {
+        this.model = model;
+        this.client = AnthropicOkHttpClient.builder()
+            .fromEnv()
+            .timeout(Duration.ofSeconds(timeoutSeconds))
+            .maxRetries(maxRetries)
+            .build();
+        System.out.println("🤖 Anthropic client ready (model " + model + ", timeout " + timeoutSeconds + "s)");
+
+        if (System.getenv("ANTHROPIC_API_KEY") != null) {
+            Thread warmUp = new Thread(this::warmUp, "anthropic-warmup");
+            warmUp.setDaemon(true);
+            warmUp.start();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getModel() {
+        return model;
+    }
+
+    @Override
+    public AnalysisResponse complete(AnalysisRequest request) {
+        String toolName = AnalysisSchemas.toolName(request.getKind());
+        MessageCreateParams.Builder params = MessageCreateParams.builder()
+            .model(model)
+            .maxTokens(request.getMaxTokens());
+        if (toolName != null) {
+            for (Tool tool : ANALYSIS_TOOLS) params.addTool(tool);
+            params.toolChoice(ToolChoiceAny.builder().build());
+        }
+        if (request.getSharedPrefix() == null) {
+            params.addUserMessage(request.getPrompt());
+        } else {
+            params.addUserMessageOfBlockParams(userBlocks(request));
+        }
+
+        long start = System.nanoTime();
+        long firstByteMs = -1;
+        MessageAccumulator accumulator = MessageAccumulator.create();
+        try (StreamResponse<RawMessageStreamEvent> stream = client.messages().createStreaming(params.build())) {
+            Iterator<RawMessageStreamEvent> events = stream.stream().iterator();
+            while (events.hasNext()) {
+                RawMessageStreamEvent event = events.next();
+                if (firstByteMs < 0) firstByteMs = (System.nanoTime() - start) / 1_000_000;
+                accumulator.accumulate(event);
+            }
+        }
+
+        return responseOf(accumulator.message(), toolName, Math.max(firstByteMs, 0));
+    }
+
+    /**
+     * Shared prefix (marked for the prompt cache) and instructions as two text blocks
+     */
+    private static List<ContentBlockParam> userBlocks(AnalysisRequest request) {
+        return List.of(
+            ContentBlockParam.ofText(TextBlockParam.builder()
+                .text(request.getSharedPrefix())
+                .cacheControl(CacheControlEphemeral.builder().build())
+                .build()),
+            ContentBlockParam.ofText(TextBlockParam.builder()
+                .text(request.getPrompt())
+                .build()));
+    }
+
+    private static AnalysisResponse responseOf(Message message, String toolName, long firstByteMs) {
+        Usage usage = message.usage();
+        return new AnalysisResponse(
+            toolName == null ? textOf(message) : toolInputOf(message, toolName),
+            usage.inputTokens(),
+            usage.outputTokens(),
+            usage.cacheReadInputTokens().orElse(0L),
+            usage.cacheCreationInputTokens().orElse(0L),
+            firstByteMs);
+    }
+
+    /**
+     * One batch entry per request, with the same tools and content blocks as an interactive call
+     */
+    @Override
+    public String submit(Map<String, AnalysisRequest> requests) {
+        BatchCreateParams.Builder batch = BatchCreateParams.builder();
+        for (Map.Entry<String, AnalysisRequest> entry : requests.entrySet()) {
+            AnalysisRequest request = entry.getValue();
+            BatchCreateParams.Request.Params.Builder params = BatchCreateParams.Request.Params.builder()
+                .model(model)
+                .maxTokens(request.getMaxTokens());
+            if (AnalysisSchemas.toolName(request.getKind()) != null) {
+                for (Tool tool : ANALYSIS_TOOLS) params.addTool(tool);
+                params.toolChoice(ToolChoiceAny.builder().build());
+            }
+            if (request.getSharedPrefix() == null) {
+                params.addUserMessage(request.getPrompt());
+            } else {
+                params.addUserMessageOfBlockParams(userBlocks(request));
+            }
+            batch.addRequest(BatchCreateParams.Request.builder()
+                .customId(entry.getKey())
+                .params(params.build())
+                .build());
+        }
+        return client.messages().batches().create(batch.build()).id();
+    }
+
+    @Override
+    public Status poll(String batchId) {
+        MessageBatch batch;
+        try {
+            batch = client.messages().batches().retrieve(
+                BatchRetrieveParams.builder().messageBatchId(batchId).build());
+        } catch (NotFoundException e) {
+            return Status.MISSING;
+        }
+        if (batch.processingStatus().equals(MessageBatch.ProcessingStatus.ENDED)) return Status.ENDED;
+        System.out.println("📦 Batch " + batchId + ": " + batch.requestCounts().processing() + " processing, "
+                + batch.requestCounts().succeeded() + " succeeded, " + batch.requestCounts().errored() + " errored");
+        return Status.IN_PROGRESS;
+    }
+
+    /**
+     * Streams the results file; errored, expired and canceled entries are logged and left out
+     * The kind is not known here: the answer is the tool input if a tool was called, else the text.
+     */
+    @Override
+    public Map<String, AnalysisResponse> results(String batchId) {
+        Map<String, AnalysisResponse> results = new LinkedHashMap<>();
+        try (StreamResponse<MessageBatchIndividualResponse> stream = client.messages().batches().resultsStreaming(
+                BatchResultsParams.builder().messageBatchId(batchId).build())) {
+            Iterator<MessageBatchIndividualResponse> entries = stream.stream().iterator();
+            while (entries.hasNext()) {
+                MessageBatchIndividualResponse entry = entries.next();
+                if (!entry.result().isSucceeded()) {
+                    System.err.println("⚠️ Batch request " + entry.customId() + " did not succeed: " + entry.result());
+                    continue;
+                }
+                Message message = entry.result().asSucceeded().message();
+                results.put(entry.customId(), responseOf(message, calledTool(message), 0));
+            }
+        }
+        return results;
+    }
+
+    private static String calledTool(Message message) {
+        for (ContentBlock block : message.content()) {
+            ToolUseBlock toolUse = block.toolUse().orElse(null);
+            if (toolUse != null) return toolUse.name();
+        }
+        return null;
+    }
+
+    private static String textOf(Message message) {
+        StringBuilder text = new StringBuilder();
+        for (ContentBlock block : message.content()) {
+            block.text().ifPresent(textBlock -> text.append(textBlock.text()));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Input of the requested tool call as JSON (any tool call if the model picked another one)
+     * Without a tool call (max_tokens stop, refusal) the text is returned, so the
+     * caller's decode-and-ask-again path handles it like any malformed answer.
+     */
+    private static String toolInputOf(Message message, String toolName) {
+        ToolUseBlock chosen = null;
+        for (ContentBlock block : message.content()) {
+            ToolUseBlock toolUse = block.toolUse().orElse(null);
+            if (toolUse == null) continue;
+            if (chosen == null || toolUse.name().equals(toolName)) chosen = toolUse;
+        }
+        if (chosen == null) {
+            System.out.println("⚠️ Claude answered without calling " + toolName
+                    + " (stop reason " + message.stopReason().map(Object::toString).orElse("unknown") + ")");
+            return textOf(message);
+        }
+        if (!chosen.name().equals(toolName)) {
+            System.out.println("⚠️ Claude called " + chosen.name() + " instead of " + toolName + "; decoding it anyway");
+        }
+        return GSON.toJson(chosen._input().convert(Object.class));
+    }
+
+    private static List<Tool> buildTools() {
+        List<Tool> tools = new ArrayList<>();
+        for (String name : AnalysisSchemas.toolNames()) {
+            tools.add(Tool.builder()
+                .name(name)
+                .description(AnalysisSchemas.description(name))
+                .inputSchema(Tool.InputSchema.builder()
+                    .properties(JsonValue.from(AnalysisSchemas.properties(name)))
+                    .putAdditionalProperty("required", JsonValue.from(AnalysisSchemas.required(name)))
+                    .build())
+                .build());
+        }
+        return tools;
+    }
+
+    /**
+     * 408, 409, 429 and 5xx (incl. 529 overloaded) plus network errors and timeouts
+     * An error event inside a stream (overloaded_error, api_error) arrives after a 200, so it counts too.
+     */
+    @Override
+    public boolean isTransient(RuntimeException e) {
+        if (e instanceof AnthropicIoException || e instanceof SseException) return true;
+        if (e instanceof AnthropicServiceException) {
+            int status = ((AnthropicServiceException) e).statusCode();
+            return status == 408 || status == 409 || status == 429 || status >= 500;
+        }
+        return false;
+    }
+
+    @Override
+    public long getRetryAfterMs(RuntimeException e) {
+        if (!(e instanceof AnthropicServiceException)) return 0;
+        List<String> values = ((AnthropicServiceException) e).headers().values("retry-after");
+        if (values.isEmpty()) return 0;
+        try {
+            return (long) (Double.parseDouble(values.get(0).trim()) * 1000);
+        } catch (NumberFormatException notSeconds) {
+            // HTTP-date form; fall back to our own backoff
+            return 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        System.out.println("🤖 Anthropic client closed");
+    }
+
+    /**
+     * Cheap authenticated call so TLS and the pooled connection exist before the first poster
+     */
+    private void warmUp() {
+        try {
+            long start = System.nanoTime();
+            client.models().list();
+            System.out.println("🔥 Anthropic connection warmed in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (Exception e) {
+            System.err.println("⚠️ Anthropic warm-up failed: " + e.getMessage());
+        }
+    }
+}
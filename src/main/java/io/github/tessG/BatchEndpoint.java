@@ -0,0 +1,38 @@
+package io.github.tessG;
+
+import java.util.Map;
+
+/**
+ * Asynchronous bulk submission of analysis requests
+ * Requests go in under a caller-chosen custom id (at most 64 characters of
+ * [A-Za-z0-9_-]); results come back under the same id once the batch has ended.
+ * Requests that errored, expired or were canceled are simply absent from the results.
+ */
+public interface BatchEndpoint {
+
+    enum Status { IN_PROGRESS, ENDED, MISSING }
+
+    String getName();
+
+    /**
+     * Submit the requests as one batch and return its id
+     */
+    String submit(Map<String, AnalysisRequest> requests);
+
+    /**
+     * MISSING if the endpoint no longer knows the batch (expired, or a restarted local stand-in)
+     */
+    Status poll(String batchId);
+
+    /**
+     * Successful results of an ended batch, by custom id
+     */
+    Map<String, AnalysisResponse> results(String batchId);
+
+    /**
+     * How long to wait between polls
+     */
+    default long getPollIntervalMs() {
+        return 30_000;
+    }
+}
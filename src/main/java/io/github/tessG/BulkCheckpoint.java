@@ -0,0 +1,183 @@
+package io.github.tessG;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress of a bulk poster run, so an interrupted run can resume
+ * Append-only JSONL, one event per line: a batch was submitted, a batch was
+ * collected, a result arrived, a poster was written. Replayed on open; a torn
+ * last line is ignored. Results are kept here rather than in the response
+ * cache, so resuming works whichever backend and cache settings are used.
+ */
+public class BulkCheckpoint implements AutoCloseable {
+
+    private static final Gson GSON = new Gson();
+
+    private final Path path;
+    private final Map<String, List<String>> openBatches = new LinkedHashMap<>();
+    private final Map<String, AnalysisResponse> results = new HashMap<>();
+    private final Map<String, String> posters = new HashMap<>();
+    private BufferedWriter writer;
+
+    private BulkCheckpoint(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Replay the file (if any) and open it for appending
+     */
+    public static BulkCheckpoint open(Path path) throws IOException {
+        BulkCheckpoint checkpoint = new BulkCheckpoint(path);
+        int corrupt = 0;
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!checkpoint.replay(line)) corrupt++;
+                }
+            }
+        }
+        if (corrupt > 0) System.err.println("⚠️ Skipped " + corrupt + " unreadable checkpoint lines");
+
+        // Start on a fresh line in case the last one was torn
+        checkpoint.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (corrupt > 0) checkpoint.writer.newLine();
+        System.out.println("📌 Checkpoint " + path.toAbsolutePath() + ": " + checkpoint.results.size() + " results, "
+                + checkpoint.posters.size() + " posters, " + checkpoint.openBatches.size() + " open batches");
+        return checkpoint;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) writer.close();
+        writer = null;
+    }
+
+    public synchronized void recordBatch(String batchId, Collection<String> customIds) throws IOException {
+        JsonObject json = event("batch");
+        json.addProperty("id", batchId);
+        JsonArray ids = new JsonArray();
+        for (String customId : customIds) ids.add(customId);
+        json.add("customIds", ids);
+        append(json);
+        openBatches.put(batchId, new ArrayList<>(customIds));
+    }
+
+    /**
+     * The batch needs no more polling (its results are recorded, or it is gone)
+     */
+    public synchronized void recordBatchClosed(String batchId) throws IOException {
+        JsonObject json = event("closed");
+        json.addProperty("id", batchId);
+        append(json);
+        openBatches.remove(batchId);
+    }
+
+    public synchronized void recordResult(String customId, AnalysisResponse response) throws IOException {
+        JsonObject json = event("result");
+        json.addProperty("customId", customId);
+        json.addProperty("text", response.getText());
+        json.addProperty("inputTokens", response.getInputTokens());
+        json.addProperty("outputTokens", response.getOutputTokens());
+        json.addProperty("cacheReadTokens", response.getCacheReadTokens());
+        json.addProperty("cacheWriteTokens", response.getCacheWriteTokens());
+        append(json);
+        results.put(customId, response);
+    }
+
+    public synchronized void recordPoster(String source, String filename) throws IOException {
+        JsonObject json = event("poster");
+        json.addProperty("source", source);
+        json.addProperty("file", filename);
+        append(json);
+        posters.put(source, filename);
+    }
+
+    /**
+     * Batches submitted but not yet collected, by id, with their custom ids
+     */
+    public synchronized Map<String, List<String>> getOpenBatches() {
+        return new LinkedHashMap<>(openBatches);
+    }
+
+    public synchronized AnalysisResponse getResult(String customId) {
+        return results.get(customId);
+    }
+
+    /**
+     * Poster file written for this source, or null
+     */
+    public synchronized String getPoster(String source) {
+        return posters.get(source);
+    }
+
+    private static JsonObject event(String type) {
+        JsonObject json = new JsonObject();
+        json.addProperty("type", type);
+        json.addProperty("at", System.currentTimeMillis());
+        return json;
+    }
+
+    private void append(JsonObject json) throws IOException {
+        writer.write(GSON.toJson(json));
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * Apply one line; false if it is truncated or corrupt
+     */
+    private boolean replay(String line) {
+        if (line.isBlank()) return true;
+        try {
+            JsonObject json = GSON.fromJson(line, JsonObject.class);
+            if (json == null || !json.has("type")) return false;
+            switch (json.get("type").getAsString()) {
+                case "batch":
+                    List<String> ids = new ArrayList<>();
+                    for (JsonElement id : json.getAsJsonArray("customIds")) ids.add(id.getAsString());
+                    openBatches.put(json.get("id").getAsString(), ids);
+                    return true;
+                case "closed":
+                    openBatches.remove(json.get("id").getAsString());
+                    return true;
+                case "result":
+                    results.put(json.get("customId").getAsString(), new AnalysisResponse(
+                            json.get("text").getAsString(),
+                            json.get("inputTokens").getAsLong(),
+                            json.get("outputTokens").getAsLong(),
+                            json.get("cacheReadTokens").getAsLong(),
+                            json.get("cacheWriteTokens").getAsLong(),
+                            0));
+                    return true;
+                case "poster":
+                    posters.put(json.get("source").getAsString(), json.get("file").getAsString());
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (JsonParseException | IllegalStateException | UnsupportedOperationException
+                 | NullPointerException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package io.github.tessG;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Bulk Delphi posters for many boards at once (end of semester)
+ * All boards' analysis requests go out as one Message Batch; when it has
+ * ended, each board runs the usual analysis against the batch answers and
+ * gets its own poster. Progress is checkpointed, so running the same command
+ * again after an interruption picks up where it stopped.
+ * Sources are CSV files, directories of CSV files, or Padlet board ids.
+ */
+public class BulkPosterWorkflow {
+
+    private final ClaudeAnalysisService analysisService;
+    private final PadletParser padletParser;
+
+    /**
+     * padletApiKey may be null when every source is a CSV file
+     */
+    public BulkPosterWorkflow(ClaudeAnalysisService analysisService, String padletApiKey) {
+        this.analysisService = analysisService;
+        this.padletParser = padletApiKey == null || padletApiKey.isEmpty() ? null : new PadletParser(padletApiKey);
+    }
+
+    /**
+     * Usage: BulkPosterWorkflow evaluationType checkpoint.jsonl source...
+     * Settings (backend, model, ...) come from application.properties or -D options.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: BulkPosterWorkflow <evaluationType> <checkpoint.jsonl> <csv file | csv dir | padlet id>...");
+            System.exit(2);
+        }
+
+        List<String> sources = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) sources.addAll(expandSource(args[i]));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WebController.class)
+                .web(WebApplicationType.NONE)
+                .run()) {
+            BulkPosterWorkflow workflow = new BulkPosterWorkflow(
+                context.getBean(ClaudeAnalysisService.class), System.getenv("PADLET_API_KEY"));
+            List<String> posters = workflow.generatePosters(sources, args[0], Paths.get(args[1]));
+            System.out.println("✅ " + posters.size() + " of " + sources.size() + " posters ready");
+        }
+    }
+
+    /**
+     * A directory stands for the CSV files in it
+     */
+    private static List<String> expandSource(String source) throws IOException {
+        Path path = Paths.get(source);
+        if (!Files.isDirectory(path)) return List.of(source);
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(file -> isCsv(file.toString())).map(Path::toString).sorted().toList();
+        }
+    }
+
+    /**
+     * Posters for every source; sources already done in the checkpoint are skipped
+     * A board that fails is reported and left out; the others still get their posters.
+     */
+    public List<String> generatePosters(List<String> sources, String evaluationType, Path checkpointFile)
+            throws Exception {
+        BatchEndpoint endpoint = analysisService.getBatchEndpoint();
+        System.out.println("📚 Bulk run: " + sources.size() + " sources through the " + endpoint.getName()
+            + " batch endpoint");
+        EvaluationConfig config = EvaluationConfigFactory.getConfig(evaluationType);
+        List<String> posters = new ArrayList<>();
+
+        try (BulkCheckpoint checkpoint = BulkCheckpoint.open(checkpointFile)) {
+            // STEP 1: Parse and cluster every board that has no poster yet
+            List<Board> boards = new ArrayList<>();
+            for (String source : sources) {
+                String done = checkpoint.getPoster(source);
+                if (done != null && Files.exists(Paths.get(done))) {
+                    System.out.println("⏭️ " + source + " already done: " + done);
+                    posters.add(done);
+                    continue;
+                }
+                try {
+                    boards.add(prepare(source, config));
+                } catch (Exception e) {
+                    System.err.println("❌ Skipping " + source + ": " + e.getMessage());
+                }
+            }
+
+            // STEP 2: Plan their requests; results from an earlier run are reused
+            Map<String, AnalysisRequest> pending = new LinkedHashMap<>();
+            for (Board board : boards) {
+                for (AnalysisRequest request : analysisService.planDelphi(board.allStatements, board.clusters, board.nodes)) {
+                    String customId = analysisService.requestKey(request);
+                    board.customIds.add(customId);
+                    if (checkpoint.getResult(customId) == null) pending.put(customId, request);
+                }
+            }
+
+            // STEP 3: Finish batches left open by an interrupted run, then batch whatever is still missing
+            for (String batchId : checkpoint.getOpenBatches().keySet()) {
+                collect(endpoint, batchId, checkpoint);
+            }
+            pending.keySet().removeIf(customId -> checkpoint.getResult(customId) != null);
+            if (!pending.isEmpty()) {
+                String batchId = endpoint.submit(pending);
+                checkpoint.recordBatch(batchId, pending.keySet());
+                System.out.println("📦 Submitted batch " + batchId + " with " + pending.size() + " requests");
+                collect(endpoint, batchId, checkpoint);
+            }
+
+            // STEP 4: Fan the answers back out, one poster per board
+            for (Board board : boards) {
+                try {
+                    String filename = generatePoster(board, evaluationType, config, checkpoint);
+                    checkpoint.recordPoster(board.source, filename);
+                    posters.add(filename);
+                } catch (Exception e) {
+                    System.err.println("❌ Poster for " + board.source + " failed: " + e.getMessage());
+                }
+            }
+        }
+
+        System.out.println(analysisService.getCacheStatsLine());
+        System.out.println(analysisService.getBackendStatsLine());
+        return posters;
+    }
+
+    /**
+     * Wait for the batch to end and record its results
+     * Requests missing from the results (errored, expired) are made directly later.
+     */
+    private static void collect(BatchEndpoint endpoint, String batchId, BulkCheckpoint checkpoint) throws Exception {
+        long start = System.currentTimeMillis();
+        BatchEndpoint.Status status;
+        while ((status = endpoint.poll(batchId)) == BatchEndpoint.Status.IN_PROGRESS) {
+            Thread.sleep(endpoint.getPollIntervalMs());
+        }
+        if (status == BatchEndpoint.Status.MISSING) {
+            System.err.println("⚠️ Batch " + batchId + " is gone; its requests will be submitted again");
+            checkpoint.recordBatchClosed(batchId);
+            return;
+        }
+
+        Map<String, AnalysisResponse> results = endpoint.results(batchId);
+        for (Map.Entry<String, AnalysisResponse> result : results.entrySet()) {
+            checkpoint.recordResult(result.getKey(), result.getValue());
+        }
+        checkpoint.recordBatchClosed(batchId);
+        System.out.println("📦 Batch " + batchId + " ended: " + results.size() + " results after "
+            + (System.currentTimeMillis() - start) / 1000 + " s");
+    }
+
+    private Board prepare(String source, EvaluationConfig config) throws Exception {
+        System.out.println("📥 Preparing " + source + "...");
+        Map<String, List<Statement>> categorized;
+        if (isCsv(source)) {
+            categorized = new DelphiCsvParser().parseCategorizedCsv(source);
+        } else if (padletParser != null) {
+            categorized = padletParser.fetchCategorizedStatements(source);
+        } else {
+            throw new IllegalStateException("PADLET_API_KEY environment variable not set");
+        }
+        if (categorized.isEmpty()) {
+            throw new RuntimeException("No statements found");
+        }
+        categorized = StatementDeduplicator.collapse(categorized);
+
+        List<String> allStatements = new ArrayList<>();
+        for (List<Statement> statements : categorized.values()) {
+            for (Statement stmt : statements) {
+                allStatements.add(stmt.getFullStatement());
+            }
+        }
+
+        NodeTable nodes = GraphDataService.buildNodes(categorized);
+        EdgeList edges = GraphDataService.calculateSimilarities(nodes, config);
+        List<StatementCluster> clusters = GraphClustering.findClusters(nodes, edges);
+        return new Board(source, categorized, allStatements, nodes, edges, clusters);
+    }
+
+    private String generatePoster(Board board, String evaluationType, EvaluationConfig config,
+            BulkCheckpoint checkpoint) throws Exception {
+        System.out.println("🎨 Poster for " + board.source + "...");
+        LlmRunStats.begin();
+        for (String customId : board.customIds) {
+            AnalysisResponse result = checkpoint.getResult(customId);
+            if (result != null) analysisService.preload(customId, result);
+        }
+
+        DelphiAnalysis delphiAnalysis = analysisService.analyzeDelphi(
+            board.categorized, board.allStatements, board.clusters, board.nodes, board.edges);
+
+        GraphDataService.positionNodesForPoster(board.nodes, board.edges);
+        String htmlPoster = PosterGenerator.generateDelphiDashboard(
+            board.nodes, board.edges, board.clusters, config,
+            delphiAnalysis.getAnalysis(), delphiAnalysis.getContradictions(), delphiAnalysis.getSuggestions()
+        );
+
+        LlmRunStats run = LlmRunStats.end();
+        System.out.println("📈 LLM usage: " + run.getSummaryLine());
+        htmlPoster = PosterGenerator.attachRunMetadata(htmlPoster, run);
+
+        // One file per source, unlike the single-board workflows
+        String filename = "poster-" + evaluationType + "-" + fileSafeName(board.source) + "-"
+            + java.time.LocalDate.now() + ".html";
+        Files.writeString(Paths.get(filename), htmlPoster);
+        System.out.println("💾 Saved to: " + filename);
+        return filename;
+    }
+
+    private static boolean isCsv(String source) {
+        return source.toLowerCase().endsWith(".csv");
+    }
+
+    /**
+     * CSV file name without extension, or the Padlet id
+     */
+    private static String fileSafeName(String source) {
+        String name = Paths.get(source).getFileName().toString();
+        if (isCsv(name)) name = name.substring(0, name.length() - 4);
+        return name.replaceAll("[^A-Za-z0-9_-]", "-");
+    }
+
+    private static class Board {
+        final String source;
+        final Map<String, List<Statement>> categorized;
+        final List<String> allStatements;
+        final NodeTable nodes;
+        final EdgeList edges;
+        final List<StatementCluster> clusters;
+        final List<String> customIds = new ArrayList<>();
+
+        Board(String source, Map<String, List<Statement>> categorized, List<String> allStatements,
+              NodeTable nodes, EdgeList edges, List<StatementCluster> clusters) {
+            this.source = source;
+            this.categorized = categorized;
+            this.allStatements = allStatements;
+            this.nodes = nodes;
+            this.edges = edges;
+            this.clusters = clusters;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.tessG;
+
+/**
+ * Cosine similarity of character trigram counts
+ * Robust to Danish inflections and compounds, which word metrics miss
+ */
+public class CharNgramCosineMetric implements SimilarityMetric {
+
+    public static final String NAME = "ngram";
+
+    private static final int N = 3;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Scorer prepare(String[] texts) {
+        SparseVectors vectors = SparseVectors.build(SparseVectors.charNgrams(texts, N));
+        vectors.normalize();
+        return (i, j, threshold) -> {
+            double sim = Math.min(1.0, vectors.dot(i, j));
+            return sim >= threshold ? sim : SimilarityMetric.NO_MATCH;
+        };
+    }
+}
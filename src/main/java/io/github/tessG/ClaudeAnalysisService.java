@@ -1,234 +1,688 @@
 package io.github.tessG;
 
-import com.anthropic.client.AnthropicClient;
-import com.anthropic.client.okhttp.AnthropicOkHttpClient;
-import com.anthropic.models.messages.MessageCreateParams;
-import com.anthropic.models.messages.Message;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonArray;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Service for all Claude API analysis calls
  * Shared by both Delphi and DSC workflows
+ * Builds the prompts and decodes the replies; the AnalysisBackend chosen by
+ * hivemind.analysis.backend answers them (Anthropic API or offline stub).
  */
+@Service
 public class ClaudeAnalysisService {
     
+    private static final int MAX_PROMPT_CLUSTERS = 8;
+    private static final int MAX_CONTRADICTIONS = 8;
+    
+    @Value("${hivemind.anthropic.model:claude-sonnet-4-5-20250929}")
+    private String model;
+    
+    @Value("${hivemind.anthropic.timeout-seconds:180}")
+    private int timeoutSeconds;
+    
+    // The SDK's own retries are off by default: ResilientAnalysisBackend retries instead
+    @Value("${hivemind.anthropic.max-retries:0}")
+    private int maxRetries;
+    
+    // Map-reduce: statement lists above this estimate are split into chunks analyzed concurrently
+    @Value("${hivemind.analysis.chunk-tokens:8000}")
+    private int chunkTokens;
+    
+    @Value("${hivemind.analysis.concurrency:4}")
+    private int concurrency;
+    
+    // "separate": three calls per Delphi board; "combined": one call returning everything;
+    // "extractive": no LLM calls, ExtractiveAnalyzer summary only
+    @Value("${hivemind.analysis.mode:separate}")
+    private String mode;
+    
+    // Delphi workflows save an extractive poster first and replace it when Claude has answered
+    @Value("${hivemind.analysis.draft-posters:false}")
+    private boolean draftPosters;
+    
+    // Contradictions: only this many locally shortlisted pairs go to Claude (0 = whole board)
+    @Value("${hivemind.analysis.contradiction-candidates:30}")
+    private int contradictionCandidates;
+    
+    // "anthropic" or "stub" (offline, deterministic, simulated latency)
+    @Value("${hivemind.analysis.backend:anthropic}")
+    private String backendName;
+    
+    @Value("${hivemind.analysis.stub.latency-ms:800}")
+    private long stubLatencyMs;
+    
+    @Value("${hivemind.analysis.stub.jitter-ms:400}")
+    private long stubJitterMs;
+    
+    @Value("${hivemind.analysis.stub.failure-rate:0}")
+    private double stubFailureRate;
+    
+    // Resilience: shared rate limit, retries with backoff, circuit breaker
+    @Value("${hivemind.analysis.rate-per-minute:50}")
+    private double ratePerMinute;
+    
+    @Value("${hivemind.analysis.rate-burst:10}")
+    private int rateBurst;
+    
+    @Value("${hivemind.analysis.retry.max-attempts:4}")
+    private int retryMaxAttempts;
+    
+    @Value("${hivemind.analysis.retry.base-delay-ms:1000}")
+    private long retryBaseDelayMs;
+    
+    @Value("${hivemind.analysis.retry.max-delay-ms:30000}")
+    private long retryMaxDelayMs;
+    
+    @Value("${hivemind.analysis.breaker.failure-threshold:5}")
+    private int breakerFailureThreshold;
+    
+    @Value("${hivemind.analysis.breaker.open-seconds:30}")
+    private int breakerOpenSeconds;
+    
+    private final LlmResponseCache responseCache;
+    private final LlmMetrics metrics;
+    private ResilientAnalysisBackend backend;
+    private BatchEndpoint batchEndpoint;
+    private ExecutorService chunkExecutor;
+    
+    // Answers fetched from a Message Batch, by request key; each is handed out once
+    private final Map<String, AnalysisResponse> batchAnswers = new ConcurrentHashMap<>();
+    
+    public ClaudeAnalysisService(LlmResponseCache responseCache, LlmMetrics metrics) {
+        this.responseCache = responseCache;
+        this.metrics = metrics;
+    }
+    
     /**
-     * Analyze statements for summary, headline, key insight, funny statement
-     * SHARED by both Delphi and DSC
+     * Create the configured backend, its batch endpoint and the chunk pool
+     * The Anthropic backend batches through the Message Batches API; any other
+     * backend gets the in-process LocalBatchEndpoint.
      */
-    public static Map<String, String> analyzeSummaryAndInsights(List<String> statements) throws Exception {
-        AnthropicClient client = AnthropicOkHttpClient.fromEnv();
+    @PostConstruct
+    public void start() {
+        AnalysisBackend delegate = createBackend(backendName);
+        backend = new ResilientAnalysisBackend(
+            delegate,
+            new TokenBucket(ratePerMinute, rateBurst),
+            new CircuitBreaker(breakerFailureThreshold, breakerOpenSeconds * 1000L),
+            retryMaxAttempts, retryBaseDelayMs, retryMaxDelayMs);
+        batchEndpoint = delegate instanceof BatchEndpoint ? (BatchEndpoint) delegate : new LocalBatchEndpoint(backend);
         
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("Analyser disse student-evalueringer og giv mig:\n\n");
-        prompt.append("Udsagn:\n");
-        for (int i = 0; i < statements.size(); i++) {
-            prompt.append((i + 1)).append(". ").append(statements.get(i)).append("\n");
+        chunkExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "analysis-chunk");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    private AnalysisBackend createBackend(String name) {
+        switch (name.toLowerCase()) {
+            case AnthropicAnalysisBackend.NAME:
+            case "claude":
+                return new AnthropicAnalysisBackend(model, timeoutSeconds, maxRetries);
+            case StubAnalysisBackend.NAME:
+            case "offline":
+                return new StubAnalysisBackend(stubLatencyMs, stubJitterMs, stubFailureRate);
+            default:
+                throw new IllegalArgumentException("Unknown analysis backend: " + name);
+        }
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (chunkExecutor != null) chunkExecutor.shutdownNow();
+        if (backend != null) backend.close();
+    }
+    
+    /**
+     * Raw text of a single-turn completion (used for generated HTML posters)
+     */
+    public String complete(String prompt, long maxTokens) {
+        return complete(new AnalysisRequest(AnalysisRequest.Kind.POSTER, prompt, maxTokens), text -> text);
+    }
+    
+    public BatchEndpoint getBatchEndpoint() {
+        return batchEndpoint;
+    }
+    
+    /**
+     * Content address of a request: the response cache key, also used as batch custom id
+     */
+    public String requestKey(AnalysisRequest request) {
+        return LlmResponseCache.key(model, request.getMaxTokens(), request.getFullPrompt());
+    }
+    
+    /**
+     * Hand a batch answer to the next identical request instead of calling the backend
+     */
+    public void preload(String key, AnalysisResponse response) {
+        batchAnswers.put(key, response);
+    }
+    
+    /**
+     * Completion decoded into a typed result
+     * A preloaded batch answer is used first. Identical requests are answered
+     * from the response cache; only responses that decode are cached.
+     * An undecodable response is requested once more.
+     */
+    private <T> T complete(AnalysisRequest request, ResponseDecoder<T> decoder) {
+        long start = System.nanoTime();
+        String key = requestKey(request);
+        AnalysisResponse batched = batchAnswers.remove(key);
+        if (batched != null) {
+            try {
+                T result = decoder.decode(batched.getText());
+                metrics.record(request.getKind(), backend.getModel(), LlmMetrics.Outcome.BATCH, batched, elapsedMs(start));
+                if (backend.isCacheable()) responseCache.put(key, batched.getText());
+                return result;
+            } catch (IllegalStateException | NumberFormatException e) {
+                System.out.println("📦 Batch answer does not decode (" + e.getMessage() + "), asking directly");
+            }
+        }
+        
+        if (backend.isCacheable()) {
+            String cached = responseCache.get(key);
+            if (cached != null) {
+                try {
+                    T result = decoder.decode(cached);
+                    System.out.println("💾 Cached Claude response (" + request.getMaxTokens() + " max tokens)");
+                    metrics.record(request.getKind(), backend.getModel(), LlmMetrics.Outcome.CACHE, null, elapsedMs(start));
+                    return result;
+                } catch (IllegalStateException | NumberFormatException e) {
+                    System.out.println("💾 Ignoring cached response that no longer decodes: " + e.getMessage());
+                }
+            }
+        }
+        
+        AnalysisResponse response = call(request);
+        T result;
+        try {
+            result = decoder.decode(response.getText());
+        } catch (IllegalStateException | NumberFormatException e) {
+            System.out.println("⚠️ Could not decode " + request.getKind().name().toLowerCase()
+                + " response (" + e.getMessage() + "), asking once more");
+            response = call(request);
+            try {
+                result = decoder.decode(response.getText());
+            } catch (IllegalStateException | NumberFormatException again) {
+                // Callers fall back (extractive summary, empty section) instead of failing the poster
+                throw new AnalysisUnavailableException("No usable " + request.getKind().name().toLowerCase()
+                    + " answer after two attempts: " + again.getMessage(), again);
+            }
+        }
+        
+        if (backend.isCacheable()) responseCache.put(key, response.getText());
+        return result;
+    }
+    
+    private interface ResponseDecoder<T> {
+        T decode(String text);
+    }
+    
+    /**
+     * One backend call, recorded in LlmMetrics and the current run
+     */
+    private AnalysisResponse call(AnalysisRequest request) {
+        long start = System.nanoTime();
+        AnalysisResponse response;
+        try {
+            response = backend.complete(request);
+        } catch (RuntimeException e) {
+            metrics.record(request.getKind(), backend.getModel(), LlmMetrics.Outcome.ERROR, null, elapsedMs(start));
+            throw e;
+        }
+        long wallMs = elapsedMs(start);
+        metrics.record(request.getKind(), backend.getModel(), LlmMetrics.Outcome.API, response, wallMs);
+        System.out.println("⏱️ " + request.getKind().name().toLowerCase() + ": " + wallMs + " ms (first byte "
+            + response.getFirstByteMs() + " ms), " + response.getInputTokens() + " in / "
+            + response.getOutputTokens() + " out tokens, " + response.getCacheReadTokens() + " from prompt cache");
+        return response;
+    }
+    
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+    
+    public String getCacheStatsLine() {
+        return responseCache.getStatsLine();
+    }
+    
+    public String getBackendStatsLine() {
+        return backend.getStatsLine();
+    }
+    
+    public boolean isDraftPosters() {
+        return draftPosters && !isExtractive();
+    }
+    
+    private boolean isExtractive() {
+        return "extractive".equalsIgnoreCase(mode);
+    }
+    
+    /**
+     * Instant local analysis: extractive summary, no contradictions or suggestions
+     */
+    public DelphiAnalysis draftDelphi(NodeTable nodes, EdgeList edges, List<StatementCluster> clusters) {
+        return new DelphiAnalysis(ExtractiveAnalyzer.summarize(nodes, edges, clusters).toMap(),
+            new ArrayList<>(), new ArrayList<>());
+    }
+    
+    /**
+     * Summary, contradictions and suggestions for a Delphi board
+     * In combined mode one call returns all three (statements are sent once);
+     * boards too large for one chunk always use the separate map-reduce calls.
+     * In separate mode all three prompts start with the same statement block,
+     * so the second and third calls read it from the API's prompt cache.
+     * If Claude is unavailable (breaker open, retries used up) the summary comes
+     * from ExtractiveAnalyzer over the graph and the other sections stay empty.
+     */
+    public DelphiAnalysis analyzeDelphi(Map<String, List<Statement>> categorized, List<String> allStatements,
+            List<StatementCluster> clusters, NodeTable nodes, EdgeList edges) throws Exception {
+        if (isExtractive()) {
+            System.out.println("🧮 Extractive analysis (no Claude calls)...");
+            return draftDelphi(nodes, edges, clusters);
+        }
+        
+        if ("combined".equalsIgnoreCase(mode) && AnalysisChunker.estimateTokens(allStatements) <= chunkTokens) {
+            System.out.println("🤖 Combined analysis: summary, contradictions and suggestions in one call...");
+            try {
+                return complete(combinedRequest(allStatements, clusters, nodes), AnalysisJson::readCombined);
+            } catch (AnalysisUnavailableException e) {
+                System.out.println("🧮 Claude unavailable (" + e.getMessage() + "), using the extractive analysis");
+                return draftDelphi(nodes, edges, clusters);
+            }
+        }
+        
+        System.out.println("🤖 Analyzing with Claude for summary and insights...");
+        Map<String, String> analysis;
+        try {
+            analysis = analyzeSummaryAndInsights(allStatements, clusters, nodes);
+        } catch (AnalysisUnavailableException e) {
+            System.out.println("🧮 Claude unavailable (" + e.getMessage() + "), using the extractive summary");
+            analysis = ExtractiveAnalyzer.summarize(nodes, edges, clusters).toMap();
+        }
+        
+        System.out.println("⚡ Detecting contradictions...");
+        List<Map<String, Object>> contradictions;
+        try {
+            contradictions = detectContradictions(allStatements, clusters, nodes);
+        } catch (AnalysisUnavailableException e) {
+            System.out.println("⚠️ No contradictions on this poster: " + e.getMessage());
+            contradictions = new ArrayList<>();
+        }
+        
+        System.out.println("💡 Generating suggestions for teachers...");
+        List<String> suggestions;
+        try {
+            suggestions = generateSuggestions(allStatements, clusters, nodes);
+        } catch (AnalysisUnavailableException e) {
+            System.out.println("⚠️ No suggestions on this poster: " + e.getMessage());
+            suggestions = new ArrayList<>();
+        }
+        
+        return new DelphiAnalysis(analysis, contradictions, suggestions);
+    }
+    
+    /**
+     * The requests analyzeDelphi starts with for this board, for submitting ahead in a batch
+     * Large boards contribute their map calls; the reduce calls that merge the
+     * chunks depend on those answers and are still made directly.
+     */
+    public List<AnalysisRequest> planDelphi(List<String> allStatements,
+            List<StatementCluster> clusters, NodeTable nodes) {
+        List<AnalysisRequest> requests = new ArrayList<>();
+        if (isExtractive()) return requests;
+        List<List<String>> chunks = AnalysisChunker.split(allStatements, chunkTokens);
+        if (chunks.size() == 1 && "combined".equalsIgnoreCase(mode)) {
+            requests.add(combinedRequest(allStatements, clusters, nodes));
+            return requests;
+        }
+        AnalysisRequest candidates = candidatesRequest(nodes);
+        if (candidates != null) requests.add(candidates);
+        if (chunks.size() == 1) {
+            requests.add(summaryRequest(allStatements, clusters, nodes));
+            if (candidates == null) requests.add(contradictionsRequest(allStatements, clusters, nodes));
+            requests.add(suggestionsRequest(allStatements, clusters, nodes));
+            return requests;
+        }
+        for (List<String> chunk : chunks) {
+            requests.add(summaryRequest(chunk, Collections.emptyList(), null));
+            if (candidates == null) requests.add(contradictionsRequest(chunk, Collections.emptyList(), null));
+            requests.add(suggestionsRequest(chunk, Collections.emptyList(), null));
         }
-        prompt.append("\nReturner KUN valid JSON (ingen forklaring, ingen markdown):\n");
-        prompt.append("{\n");
-        prompt.append("  \"headline\": \"En kort sætning (8-12 ord) der fanger essensen af feedbacken\",\n");
-        prompt.append("  \"summary\": \"2-3 sætninger der opsummerer hovedtendenserne\",\n");
-        prompt.append("  \"keyInsight\": \"En vigtig indsigt eller observation\",\n");
-        prompt.append("  \"funnyStatement\": \"Det mest kontroversielle, sjove eller provokerende udsagn fra listen\"\n");
-        prompt.append("}\n\n");
-        prompt.append("Start direkte med { og slut med }");
+        return requests;
+    }
+    
+    private AnalysisRequest combinedRequest(List<String> statements,
+            List<StatementCluster> clusters, NodeTable nodes) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Analyser udsagnene ovenfor. Giv en samlet analyse, find MODSÆTNINGER og SPÆNDINGER, ");
+        prompt.append("og generer konkrete anbefalinger til underviserne.\n");
         
-        MessageCreateParams params = MessageCreateParams.builder()
-            .model("claude-sonnet-4-5-20250929")
-            .maxTokens(1000)
-            .addUserMessage(prompt.toString())
-            .build();
+        prompt.append("\nModsætninger: find 5-8 par af udsagn der trækker i forskellige retninger, ");
+        prompt.append("skaber undervisningsmæssige dilemmaer eller repræsenterer fundamentale spændinger.\n");
+        prompt.append("Anbefalinger: 4-6 KONKRETE, HANDLINGSORIENTEREDE anbefalinger.\n\n");
         
-        Message message = client.messages().create(params);
-        String response = String.valueOf(message.content().get(0).text());
+        prompt.append("funnyStatement: Det mest kontroversielle, sjove eller provokerende udsagn fra listen\n");
+        appendToolInstruction(prompt, AnalysisSchemas.COMBINED_TOOL);
         
-        // Clean response
-        response = cleanJsonResponse(response);
+        return new AnalysisRequest(AnalysisRequest.Kind.COMBINED,
+            statementBlock(statements, clusters, nodes), prompt.toString(), 4000);
+    }
+    
+    /**
+     * Analyze statements for summary, headline, key insight, funny statement
+     * SHARED by both Delphi and DSC
+     * Extractive (ExtractiveAnalyzer) in extractive mode or when Claude is unavailable
+     */
+    public Map<String, String> analyzeSummaryAndInsights(List<String> statements) throws Exception {
+        if (isExtractive()) return ExtractiveAnalyzer.summarize(statements).toMap();
+        try {
+            return analyzeSummaryAndInsights(statements, Collections.emptyList(), null);
+        } catch (AnalysisUnavailableException e) {
+            System.out.println("🧮 Claude unavailable (" + e.getMessage() + "), using the extractive summary");
+            return ExtractiveAnalyzer.summarize(statements).toMap();
+        }
+    }
+    
+    /**
+     * Same analysis, with the themes already found in the similarity graph as a hint
+     */
+    public Map<String, String> analyzeSummaryAndInsights(List<String> statements,
+            List<StatementCluster> clusters, NodeTable nodes) throws Exception {
+        List<List<String>> chunks = AnalysisChunker.split(statements, chunkTokens);
+        if (chunks.size() == 1) return analyzeSummaryChunk(statements, clusters, nodes);
+        
+        System.out.println("🧱 Summary over " + chunks.size() + " chunks, " + concurrency + " at a time");
+        List<Map<String, String>> partials = mapChunks(chunks,
+            chunk -> analyzeSummaryChunk(chunk, Collections.emptyList(), null));
         
-        // Parse JSON
-        Gson gson = new GsonBuilder().setLenient().create();
-        JsonObject json = gson.fromJson(response, JsonObject.class);
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Her er delanalyser af hver sin del af de samme student-evalueringer.\n");
+        prompt.append("Saml dem til én samlet analyse af hele holdet.\n\n");
+        for (int i = 0; i < partials.size(); i++) {
+            Map<String, String> partial = partials.get(i);
+            prompt.append("Del ").append(i + 1).append(":\n");
+            prompt.append("- Overskrift: ").append(partial.get("headline")).append("\n");
+            prompt.append("- Sammenfatning: ").append(partial.get("summary")).append("\n");
+            prompt.append("- Nøgleindsigt: ").append(partial.get("keyInsight")).append("\n");
+            prompt.append("- Sjovt udsagn: ").append(partial.get("funnyStatement")).append("\n");
+        }
+        appendClusters(prompt, clusters, nodes);
+        appendSummaryFormat(prompt, "Det bedste af de sjove udsagn ovenfor, ordret");
         
-        Map<String, String> analysis = new HashMap<>();
-        analysis.put("headline", json.get("headline").getAsString());
-        analysis.put("summary", json.get("summary").getAsString());
-        analysis.put("keyInsight", json.get("keyInsight").getAsString());
-        analysis.put("funnyStatement", json.get("funnyStatement").getAsString());
+        return complete(new AnalysisRequest(AnalysisRequest.Kind.SUMMARY, prompt.toString(), 1000),
+            AnalysisJson::readSummary).toMap();
+    }
+    
+    private Map<String, String> analyzeSummaryChunk(List<String> statements,
+            List<StatementCluster> clusters, NodeTable nodes) throws Exception {
+        return complete(summaryRequest(statements, clusters, nodes), AnalysisJson::readSummary).toMap();
+    }
+    
+    private AnalysisRequest summaryRequest(List<String> statements,
+            List<StatementCluster> clusters, NodeTable nodes) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Analyser udsagnene ovenfor og giv mig:\n");
+        appendSummaryFormat(prompt, "Det mest kontroversielle, sjove eller provokerende udsagn fra listen");
         
-        return analysis;
+        return new AnalysisRequest(AnalysisRequest.Kind.SUMMARY,
+            statementBlock(statements, clusters, nodes), prompt.toString(), 1000);
+    }
+    
+    private static void appendSummaryFormat(StringBuilder prompt, String funnyStatementHint) {
+        prompt.append("\nfunnyStatement: ").append(funnyStatementHint).append("\n");
+        appendToolInstruction(prompt, AnalysisSchemas.SUMMARY_TOOL);
     }
     
     /**
      * Detect contradictions between statements
      * DELPHI ONLY
      */
-    public static List<Map<String, Object>> detectContradictions(
+    public List<Map<String, Object>> detectContradictions(
             Map<String, List<Statement>> categorized) throws Exception {
+        List<String> texts = new ArrayList<>();
+        for (List<Statement> statements : categorized.values()) {
+            for (Statement stmt : statements) {
+                texts.add(stmt.getText());
+            }
+        }
+        return detectContradictions(texts, Collections.emptyList(), null);
+    }
+    
+    /**
+     * Contradictions over the same statement list (and prompt prefix) as the summary and suggestions
+     * With the board's nodes at hand, only the pairs ContradictionCandidates shortlists
+     * are sent, for Claude to confirm and explain; the whole board is sent when the
+     * shortlist is switched off or empty.
+     */
+    public List<Map<String, Object>> detectContradictions(List<String> texts,
+            List<StatementCluster> clusters, NodeTable nodes) throws Exception {
+        AnalysisRequest candidates = candidatesRequest(nodes);
+        if (candidates != null) {
+            List<Map<String, Object>> confirmed = new ArrayList<>();
+            for (ContradictionResult contradiction : complete(candidates, AnalysisJson::readContradictions)) {
+                confirmed.add(contradiction.toMap());
+            }
+            return strongest(confirmed);
+        }
         
-        AnthropicClient client = AnthropicOkHttpClient.fromEnv();
-        
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("Analyser disse student-evalueringer for MODSÆTNINGER og SPÆNDINGER.\n\n");
-        prompt.append("Find udsagn der trækker i modsatte retninger eller skaber dilemmaer.\n\n");
+        List<List<String>> chunks = AnalysisChunker.split(texts, chunkTokens);
+        if (chunks.size() == 1) return detectContradictionsChunk(texts, clusters, nodes);
         
-        prompt.append("Udsagn:\n");
-        int counter = 1;
-        for (Map.Entry<String, List<Statement>> entry : categorized.entrySet()) {
-            for (Statement stmt : entry.getValue()) {
-                prompt.append(counter++).append(". ").append(stmt.getText()).append("\n");
+        // Reduce locally: pool the candidates, drop duplicate pairs, keep the strongest tensions
+        System.out.println("🧱 Contradictions over " + chunks.size() + " chunks, " + concurrency + " at a time");
+        Map<String, Map<String, Object>> unique = new LinkedHashMap<>();
+        for (List<Map<String, Object>> partial : mapChunks(chunks,
+                chunk -> detectContradictionsChunk(chunk, Collections.emptyList(), null))) {
+            for (Map<String, Object> contradiction : partial) {
+                String a = StatementIndex.normalize((String) contradiction.get("statement1"));
+                String b = StatementIndex.normalize((String) contradiction.get("statement2"));
+                unique.putIfAbsent(a.compareTo(b) <= 0 ? a + "\u0000" + b : b + "\u0000" + a, contradiction);
             }
         }
+        return strongest(new ArrayList<>(unique.values()));
+    }
+    
+    private static List<Map<String, Object>> strongest(List<Map<String, Object>> contradictions) {
+        contradictions.sort((x, y) -> Double.compare((Double) y.get("tension"), (Double) x.get("tension")));
+        return new ArrayList<>(contradictions.subList(0, Math.min(MAX_CONTRADICTIONS, contradictions.size())));
+    }
+    
+    private List<Map<String, Object>> detectContradictionsChunk(List<String> texts,
+            List<StatementCluster> clusters, NodeTable nodes) throws Exception {
+        List<Map<String, Object>> contradictions = new ArrayList<>();
+        for (ContradictionResult contradiction : complete(contradictionsRequest(texts, clusters, nodes),
+                AnalysisJson::readContradictions)) {
+            contradictions.add(contradiction.toMap());
+        }
+        return contradictions;
+    }
+    
+    private AnalysisRequest contradictionsRequest(List<String> texts,
+            List<StatementCluster> clusters, NodeTable nodes) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Analyser udsagnene ovenfor for MODSÆTNINGER og SPÆNDINGER.\n\n");
+        prompt.append("Find udsagn der trækker i modsatte retninger eller skaber dilemmaer.\n");
         
         prompt.append("\nFind 5-8 modsætningspar hvor:\n");
         prompt.append("- Udsagnene trækker i forskellige retninger\n");
         prompt.append("- De skaber undervisningsmæssige dilemmaer\n");
-        prompt.append("- De repræsenterer fundamentale spændinger\n\n");
-        
-        prompt.append("Returner KUN valid JSON (ingen forklaring, ingen markdown):\n");
-        prompt.append("{\n");
-        prompt.append("  \"contradictions\": [\n");
-        prompt.append("    {\n");
-        prompt.append("      \"statement1\": \"Præcis tekst fra udsagn A\",\n");
-        prompt.append("      \"statement2\": \"Præcis tekst fra udsagn B\",\n");
-        prompt.append("      \"tension\": 0.85,\n");
-        prompt.append("      \"theme\": \"Kort tema-navn\",\n");
-        prompt.append("      \"explanation\": \"Kort forklaring\"\n");
-        prompt.append("    }\n");
-        prompt.append("  ]\n");
-        prompt.append("}\n\n");
-        prompt.append("Start direkte med { og slut med }");
-        
-        MessageCreateParams params = MessageCreateParams.builder()
-            .model("claude-sonnet-4-5-20250929")
-            .maxTokens(2000)
-            .addUserMessage(prompt.toString())
-            .build();
-        
-        Message message = client.messages().create(params);
-        String response = String.valueOf(message.content().get(0).text());
-        
-        response = cleanJsonResponse(response);
-        
-        Gson gson = new GsonBuilder().setLenient().create();
-        JsonObject json = gson.fromJson(response, JsonObject.class);
-        JsonArray contradictionsArray = json.getAsJsonArray("contradictions");
+        prompt.append("- De repræsenterer fundamentale spændinger\n");
         
-        List<Map<String, Object>> contradictions = new ArrayList<>();
-        for (int i = 0; i < contradictionsArray.size(); i++) {
-            JsonObject contra = contradictionsArray.get(i).getAsJsonObject();
-            
-            Map<String, Object> contradiction = new HashMap<>();
-            contradiction.put("statement1", contra.get("statement1").getAsString());
-            contradiction.put("statement2", contra.get("statement2").getAsString());
-            contradiction.put("tension", contra.get("tension").getAsDouble());
-            contradiction.put("theme", contra.get("theme").getAsString());
-            contradiction.put("explanation", contra.get("explanation").getAsString());
-            
-            contradictions.add(contradiction);
-        }
+        appendToolInstruction(prompt, AnalysisSchemas.CONTRADICTIONS_TOOL);
         
-        return contradictions;
+        return new AnalysisRequest(AnalysisRequest.Kind.CONTRADICTIONS,
+            statementBlock(texts, clusters, nodes), prompt.toString(), 2000);
     }
     
     /**
-     * Generate teacher suggestions/recommendations
-     * DELPHI ONLY (but could be used for DSC too)
+     * Confirm-and-explain request for the locally shortlisted pairs; null when there are none
+     * Carries only the pairs, not the statement block (so no shared cached prefix).
+     * At most a quarter of the board's size in pairs, so the prompt quotes at most
+     * half as many statements as the whole-board prompt would.
      */
-    public static List<String> generateSuggestions(List<String> statements) throws Exception {
-        AnthropicClient client = AnthropicOkHttpClient.fromEnv();
+    private AnalysisRequest candidatesRequest(NodeTable nodes) {
+        if (nodes == null || contradictionCandidates <= 0) return null;
+        int limit = Math.min(contradictionCandidates, nodes.size() / 4);
+        if (limit == 0) return null;
+        List<ContradictionCandidates.Candidate> candidates = ContradictionCandidates.find(nodes, limit);
+        if (candidates.isEmpty()) return null;
         
         StringBuilder prompt = new StringBuilder();
-        prompt.append("Baseret på disse student-evalueringer, generer konkrete anbefalinger til underviserne.\n\n");
-        prompt.append("Udsagn:\n");
-        for (int i = 0; i < statements.size(); i++) {
-            prompt.append((i + 1)).append(". ").append(statements.get(i)).append("\n");
+        prompt.append("Her er par af udsagn fra en Delphi-evaluering (Keep/Start/Stop Doing), ");
+        prompt.append("udvalgt fordi de handler om det samme emne men måske trækker i hver sin retning.\n\n");
+        for (int i = 0; i < candidates.size(); i++) {
+            ContradictionCandidates.Candidate candidate = candidates.get(i);
+            prompt.append(i + 1).append(". [").append(nodes.getCategory(candidate.a())).append("] \"")
+                .append(nodes.getText(candidate.a())).append("\" ↔ [").append(nodes.getCategory(candidate.b()))
+                .append("] \"").append(nodes.getText(candidate.b())).append("\"\n");
         }
+        prompt.append("\nBekræft kun de par der er ægte MODSÆTNINGER eller SPÆNDINGER ");
+        prompt.append("(højst ").append(MAX_CONTRADICTIONS).append("), og forklar dem.\n");
+        prompt.append("Gengiv udsagnene ordret, uden kategori og anførselstegn. Spring resten over.\n");
+        appendToolInstruction(prompt, AnalysisSchemas.CONTRADICTIONS_TOOL);
         
-        prompt.append("\nGenerer 4-6 KONKRETE, HANDLINGSORIENTEREDE anbefalinger.\n\n");
-        
-        prompt.append("Returner KUN valid JSON:\n");
-        prompt.append("{\n");
-        prompt.append("  \"suggestions\": [\n");
-        prompt.append("    \"Konkret anbefaling 1\",\n");
-        prompt.append("    \"Konkret anbefaling 2\"\n");
-        prompt.append("  ]\n");
-        prompt.append("}\n\n");
-        prompt.append("Start direkte med { og slut med }");
-        
-        MessageCreateParams params = MessageCreateParams.builder()
-            .model("claude-sonnet-4-5-20250929")
-            .maxTokens(1500)
-            .addUserMessage(prompt.toString())
-            .build();
-        
-        Message message = client.messages().create(params);
-        String response = String.valueOf(message.content().get(0).text());
-        
-        response = cleanJsonResponse(response);
+        return new AnalysisRequest(AnalysisRequest.Kind.CONTRADICTIONS, prompt.toString(), 2000);
+    }
+    
+    /**
+     * Generate teacher suggestions/recommendations
+     * DELPHI ONLY (but could be used for DSC too)
+     */
+    public List<String> generateSuggestions(List<String> statements) throws Exception {
+        return generateSuggestions(statements, Collections.emptyList(), null);
+    }
+    
+    /**
+     * Suggestions with the graph themes as a hint, so each major theme can be addressed
+     */
+    public List<String> generateSuggestions(List<String> statements,
+            List<StatementCluster> clusters, NodeTable nodes) throws Exception {
+        List<List<String>> chunks = AnalysisChunker.split(statements, chunkTokens);
+        if (chunks.size() == 1) return generateSuggestionsChunk(statements, clusters, nodes);
         
-        Gson gson = new GsonBuilder().setLenient().create();
-        JsonObject json = gson.fromJson(response, JsonObject.class);
-        JsonArray suggestionsArray = json.getAsJsonArray("suggestions");
+        System.out.println("🧱 Suggestions over " + chunks.size() + " chunks, " + concurrency + " at a time");
+        List<List<String>> partials = mapChunks(chunks,
+            chunk -> generateSuggestionsChunk(chunk, Collections.emptyList(), null));
         
-        List<String> suggestions = new ArrayList<>();
-        for (int i = 0; i < suggestionsArray.size(); i++) {
-            suggestions.add(suggestionsArray.get(i).getAsString());
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Her er anbefalinger til underviserne, udarbejdet fra hver sin del af de samme student-evalueringer.\n\n");
+        prompt.append("Anbefalinger:\n");
+        int counter = 1;
+        for (List<String> partial : partials) {
+            for (String suggestion : partial) {
+                prompt.append(counter++).append(". ").append(suggestion).append("\n");
+            }
         }
+        appendClusters(prompt, clusters, nodes);
+        prompt.append("\nSaml dem, fjern overlap og prioritér: de vigtigste skal dække hele holdet.\n");
+        appendSuggestionsFormat(prompt);
+        
+        return complete(new AnalysisRequest(AnalysisRequest.Kind.SUGGESTIONS, prompt.toString(), 1500),
+            AnalysisJson::readSuggestions);
+    }
+    
+    private List<String> generateSuggestionsChunk(List<String> statements,
+            List<StatementCluster> clusters, NodeTable nodes) throws Exception {
+        return complete(suggestionsRequest(statements, clusters, nodes), AnalysisJson::readSuggestions);
+    }
+    
+    private AnalysisRequest suggestionsRequest(List<String> statements,
+            List<StatementCluster> clusters, NodeTable nodes) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Baseret på udsagnene ovenfor, generer konkrete anbefalinger til underviserne.\n");
+        appendSuggestionsFormat(prompt);
         
-        return suggestions;
+        return new AnalysisRequest(AnalysisRequest.Kind.SUGGESTIONS,
+            statementBlock(statements, clusters, nodes), prompt.toString(), 1500);
+    }
+    
+    private static void appendSuggestionsFormat(StringBuilder prompt) {
+        prompt.append("\nGenerer 4-6 KONKRETE, HANDLINGSORIENTEREDE anbefalinger.\n");
+        appendToolInstruction(prompt, AnalysisSchemas.SUGGESTIONS_TOOL);
     }
     
     /**
-     * Clean Claude JSON response - remove Optional wrapper, markdown, etc.
+     * The schema and field descriptions travel with the tool definition (AnalysisSchemas)
      */
-    private static String cleanJsonResponse(String response) {
-        // Extract from Optional wrapper if present
-        if (response.startsWith("Optional[")) {
-            int textStart = response.indexOf("text=");
-            if (textStart != -1) {
-                response = response.substring(textStart + 5);
-                int lastBracket = response.lastIndexOf("}]");
-                if (lastBracket != -1) {
-                    response = response.substring(0, lastBracket);
+    private static void appendToolInstruction(StringBuilder prompt, String toolName) {
+        prompt.append("\nSvar ved at kalde værktøjet ").append(toolName).append(".");
+    }
+    
+    /**
+     * Run one task per chunk on the chunk pool; results keep chunk order
+     * The caller's LlmRunStats goes along, so chunk calls count towards the run
+     */
+    private <T> List<T> mapChunks(List<List<String>> chunks, ChunkTask<T> task) throws Exception {
+        LlmRunStats run = LlmRunStats.current();
+        List<Future<T>> futures = new ArrayList<>();
+        for (List<String> chunk : chunks) {
+            futures.add(chunkExecutor.submit(() -> {
+                LlmRunStats.attach(run);
+                try {
+                    return task.run(chunk);
+                } finally {
+                    LlmRunStats.attach(null);
                 }
-            }
+            }));
         }
         
-        response = response.trim();
-        response = response.replaceAll("```json\\s*", "");
-        response = response.replaceAll("```\\s*", "");
-        response = response.replaceAll(", type=text.*", "");
-        response = response.trim();
-        
-        // Find JSON boundaries
-        int jsonStart = response.indexOf('{');
-        if (jsonStart > 0) {
-            response = response.substring(jsonStart);
-        }
-        
-        // Count braces to find real end
-        int braceCount = 0;
-        int jsonEnd = -1;
-        for (int i = 0; i < response.length(); i++) {
-            if (response.charAt(i) == '{') braceCount++;
-            if (response.charAt(i) == '}') {
-                braceCount--;
-                if (braceCount == 0) {
-                    jsonEnd = i;
-                    break;
-                }
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
             }
+        } catch (ExecutionException e) {
+            for (Future<T> future : futures) future.cancel(true);
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
         }
-        if (jsonEnd != -1 && jsonEnd < response.length() - 1) {
-            response = response.substring(0, jsonEnd + 1);
+        return results;
+    }
+    
+    private interface ChunkTask<T> {
+        T run(List<String> chunk) throws Exception;
+    }
+    
+    /**
+     * Shared prompt prefix: the numbered statements and graph themes, without instructions
+     * Must be byte-identical across the calls for one board to hit the prompt cache.
+     */
+    private static String statementBlock(List<String> statements, List<StatementCluster> clusters, NodeTable nodes) {
+        StringBuilder prefix = new StringBuilder();
+        prefix.append("Student-evalueringer til analyse.\n\n");
+        prefix.append("Udsagn:\n");
+        for (int i = 0; i < statements.size(); i++) {
+            prefix.append((i + 1)).append(". ").append(statements.get(i)).append("\n");
         }
+        appendClusters(prefix, clusters, nodes);
+        return prefix.toString();
+    }
+    
+    /**
+     * List the largest graph themes with keywords and a representative statement
+     */
+    private static void appendClusters(StringBuilder prompt, List<StatementCluster> clusters, NodeTable nodes) {
+        if (clusters.isEmpty()) return;
         
-        return response;
+        prompt.append("\nTemaer fundet ved at gruppere lignende udsagn (størst først):\n");
+        for (int i = 0; i < Math.min(MAX_PROMPT_CLUSTERS, clusters.size()); i++) {
+            StatementCluster cluster = clusters.get(i);
+            prompt.append("- Tema ").append(i + 1).append(" (").append(cluster.getSize()).append(" udsagn");
+            if (!cluster.getKeywords().isEmpty()) {
+                prompt.append("; nøgleord: ").append(String.join(", ", cluster.getKeywords()));
+            }
+            prompt.append("), fx: \"").append(nodes.getText(cluster.getRepresentative())).append("\"\n");
+        }
     }
 }
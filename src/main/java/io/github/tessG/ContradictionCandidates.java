@@ -0,0 +1,201 @@
+package io.github.tessG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local shortlist of statement pairs likely to be in tension
+ * Pairs must share a topic: candidates come from a posting index over word
+ * stems, scored by overlap coefficient. The overlap is multiplied by the
+ * opposition signals: categories pulling opposite ways (Keep/Start vs Stop),
+ * a negation on one side only, and a Danish antonym pair across the two.
+ * Only the top pairs go to Claude for confirmation and explanation.
+ */
+public class ContradictionCandidates {
+
+    private static final int STEM_LENGTH = 6;
+    private static final int MIN_TOKEN_LENGTH = 3;
+    private static final int MAX_PAIRS_PER_STATEMENT = 3;
+    // Stems on more than this share of the board say nothing about a shared topic
+    private static final double MAX_STEM_SHARE = 0.25;
+
+    private static final double OPPOSITE_CATEGORIES = 0.5;
+    private static final double DIFFERENT_CATEGORIES = 0.2;
+    private static final double NEGATION_MISMATCH = 0.3;
+    private static final double ANTONYM = 0.4;
+
+    private static final Set<String> NEGATIONS = Set.of(
+        "ikke", "ingen", "intet", "ingenting", "aldrig", "hverken", "uden", "undgå", "stop", "stoppe", "drop", "droppe");
+
+    private static final Map<String, String> ANTONYMS = antonyms(
+        "mere", "mindre", "flere", "færre", "mange", "få", "meget", "lidt", "længere", "kortere",
+        "lang", "kort", "lange", "korte", "hurtig", "langsom", "hurtigere", "langsommere",
+        "svær", "let", "svære", "lette", "sværere", "lettere", "god", "dårlig", "gode", "dårlige",
+        "bedre", "værre", "høj", "lav", "højere", "lavere", "tidlig", "sen", "tidligere", "senere",
+        "før", "efter", "altid", "aldrig", "alene", "sammen", "individuel", "gruppe", "teori", "praksis",
+        "fysisk", "online", "struktur", "frihed", "fast", "fleksibel", "faste", "fleksible", "ofte", "sjældent",
+        "more", "less");
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "og", "at", "en", "et", "den", "det", "de", "er", "til", "på", "med", "for", "af", "som", "vi", "jeg",
+        "man", "der", "har", "kan", "være", "vil", "skal", "når", "hvor", "hvis", "men", "også", "eller",
+        "om", "os", "jer", "dem", "sig", "sin", "sit", "sine", "vores", "jeres", "fra", "ud", "op", "ind",
+        "så", "lige", "bare", "nogle", "noget", "alle", "hele", "the", "and", "more", "less");
+
+    /**
+     * One proposed pair (node ids, a < b) with its local tension score
+     */
+    public record Candidate(int a, int b, double score) {
+    }
+
+    /**
+     * Up to limit pairs, strongest first; no statement takes part in more than three
+     */
+    public static List<Candidate> find(NodeTable nodes, int limit) {
+        int n = nodes.size();
+        String[] texts = new String[n];
+        for (int v = 0; v < n; v++) texts[v] = StatementIndex.normalize(nodes.getText(v));
+        List<List<String>> tokens = SparseVectors.tokenize(texts);
+
+        // Content stems per statement as sorted ids, plus the opposition features
+        Map<String, Integer> stemIds = new HashMap<>();
+        int[][] stems = new int[n][];
+        boolean[] negated = new boolean[n];
+        List<Set<String>> words = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            Set<String> stemSet = new HashSet<>();
+            for (String token : tokens.get(v)) {
+                if (NEGATIONS.contains(token)) negated[v] = true;
+                if (token.length() < MIN_TOKEN_LENGTH || STOPWORDS.contains(token)
+                        || NEGATIONS.contains(token) || ANTONYMS.containsKey(token)) continue;
+                stemSet.add(token.length() > STEM_LENGTH ? token.substring(0, STEM_LENGTH) : token);
+            }
+            int[] ids = new int[stemSet.size()];
+            int k = 0;
+            for (String stem : stemSet) ids[k++] = stemIds.computeIfAbsent(stem, s -> stemIds.size());
+            Arrays.sort(ids);
+            stems[v] = ids;
+            words.add(new HashSet<>(tokens.get(v)));
+        }
+
+        // Posting lists; very common stems are left out of pair generation (not of scoring)
+        List<List<Integer>> postings = new ArrayList<>();
+        for (int s = 0; s < stemIds.size(); s++) postings.add(new ArrayList<>());
+        for (int v = 0; v < n; v++) {
+            for (int s : stems[v]) postings.get(s).add(v);
+        }
+        int maxPosting = Math.max(2, (int) (n * MAX_STEM_SHARE));
+
+        int[] polarity = new int[nodes.getCategoryCount()];
+        for (int c = 0; c < polarity.length; c++) polarity[c] = polarity(nodes.getCategoryName(c));
+
+        List<Candidate> candidates = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (List<Integer> posting : postings) {
+            if (posting.size() < 2 || posting.size() > maxPosting) continue;
+            for (int i = 0; i < posting.size(); i++) {
+                for (int j = i + 1; j < posting.size(); j++) {
+                    int a = posting.get(i);
+                    int b = posting.get(j);
+                    if (!seen.add((long) a * n + b)) continue;
+                    double score = overlap(stems[a], stems[b]) * opposition(nodes, polarity, negated, words, a, b);
+                    if (score > 0) candidates.add(new Candidate(a, b, score));
+                }
+            }
+        }
+
+        candidates.sort((x, y) -> x.score() != y.score() ? Double.compare(y.score(), x.score())
+            : x.a() != y.a() ? x.a() - y.a() : x.b() - y.b());
+        int[] uses = new int[n];
+        List<Candidate> top = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (top.size() == limit) break;
+            if (uses[candidate.a()] >= MAX_PAIRS_PER_STATEMENT || uses[candidate.b()] >= MAX_PAIRS_PER_STATEMENT) continue;
+            uses[candidate.a()]++;
+            uses[candidate.b()]++;
+            top.add(candidate);
+        }
+        System.out.println("🔎 " + candidates.size() + " contradiction candidates from " + n + " statements, "
+            + top.size() + " kept");
+        return top;
+    }
+
+    /**
+     * Sum of the opposition signals; 0 when nothing pulls the pair apart
+     */
+    private static double opposition(NodeTable nodes, int[] polarity, boolean[] negated,
+                                     List<Set<String>> words, int a, int b) {
+        double signal = 0;
+        int categoryA = nodes.getCategoryId(a);
+        int categoryB = nodes.getCategoryId(b);
+        if (polarity[categoryA] * polarity[categoryB] < 0) {
+            signal += OPPOSITE_CATEGORIES;
+        } else if (categoryA != categoryB) {
+            signal += DIFFERENT_CATEGORIES;
+        }
+        if (negated[a] != negated[b]) signal += NEGATION_MISMATCH;
+        for (String word : words.get(a)) {
+            String antonym = ANTONYMS.get(word);
+            if (antonym != null && words.get(b).contains(antonym)) {
+                signal += ANTONYM;
+                break;
+            }
+        }
+        return signal;
+    }
+
+    /**
+     * Shared stems over the smaller stem set (sorted id merge)
+     */
+    private static double overlap(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) return 0;
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / Math.min(a.length, b.length);
+    }
+
+    /**
+     * +1 for categories that ask for more of something, -1 for those that ask for less
+     */
+    private static int polarity(String category) {
+        String name = category.toLowerCase();
+        if (name.contains("stop") || name.contains("less") || name.contains("drop")) return -1;
+        if (name.contains("keep") || name.contains("start") || name.contains("begin")
+                || name.contains("continue") || name.contains("more")) return 1;
+        return 0;
+    }
+
+    /**
+     * True for a negation or antonym word: posts differing in one say different things
+     */
+    static boolean isPolarityWord(String token) {
+        return NEGATIONS.contains(token) || ANTONYMS.containsKey(token);
+    }
+    
+    /**
+     * Symmetric lookup from word pairs given as a flat list
+     */
+    private static Map<String, String> antonyms(String... pairs) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            map.put(pairs[i], pairs[i + 1]);
+            map.put(pairs[i + 1], pairs[i]);
+        }
+        return map;
+    }
+}
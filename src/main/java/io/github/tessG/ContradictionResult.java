@@ -0,0 +1,24 @@
+package io.github.tessG;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decoded contradiction: two statements in tension
+ */
+public record ContradictionResult(String statement1, String statement2, double tension,
+                                  String theme, String explanation) {
+
+    /**
+     * The Map shape PosterGenerator reads
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> contradiction = new HashMap<>();
+        contradiction.put("statement1", statement1);
+        contradiction.put("statement2", statement2);
+        contradiction.put("tension", tension);
+        contradiction.put("theme", theme);
+        contradiction.put("explanation", explanation);
+        return contradiction;
+    }
+}
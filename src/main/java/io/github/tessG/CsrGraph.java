@@ -0,0 +1,84 @@
+package io.github.tessG;
+
+/**
+ * Undirected weighted graph in compressed sparse row form
+ * The neighbours of node v are neighbours[offsets[v] .. offsets[v + 1]),
+ * every edge is stored in both rows. A self loop is stored once.
+ */
+public class CsrGraph {
+
+    private final int nodeCount;
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final double[] weights;
+
+    public CsrGraph(int nodeCount, int[] offsets, int[] neighbours, double[] weights) {
+        this.nodeCount = nodeCount;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.weights = weights;
+    }
+
+    /**
+     * Build from an edge list, using the similarity as edge weight
+     */
+    public static CsrGraph fromEdges(int nodeCount, EdgeList edges) {
+        int[] offsets = new int[nodeCount + 1];
+        for (int e = 0; e < edges.size(); e++) {
+            offsets[edges.getSource(e) + 1]++;
+            offsets[edges.getTarget(e) + 1]++;
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] next = new int[nodeCount];
+        System.arraycopy(offsets, 0, next, 0, nodeCount);
+        int[] neighbours = new int[offsets[nodeCount]];
+        double[] weights = new double[offsets[nodeCount]];
+        for (int e = 0; e < edges.size(); e++) {
+            int a = edges.getSource(e);
+            int b = edges.getTarget(e);
+            neighbours[next[a]] = b;
+            weights[next[a]++] = edges.getSimilarity(e);
+            neighbours[next[b]] = a;
+            weights[next[b]++] = edges.getSimilarity(e);
+        }
+        return new CsrGraph(nodeCount, offsets, neighbours, weights);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getStart(int node) {
+        return offsets[node];
+    }
+
+    public int getEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    public int getNeighbour(int slot) {
+        return neighbours[slot];
+    }
+
+    public double getWeight(int slot) {
+        return weights[slot];
+    }
+
+    public int getDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * Sum of the weights in the node's row
+     */
+    public double getWeightedDegree(int node) {
+        double sum = 0;
+        for (int slot = offsets[node]; slot < offsets[node + 1]; slot++) {
+            sum += weights[slot];
+        }
+        return sum;
+    }
+}
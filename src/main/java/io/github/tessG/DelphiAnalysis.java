@@ -0,0 +1,37 @@
+package io.github.tessG;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything Claude contributes to a Delphi dashboard
+ * Same shapes as the individual ClaudeAnalysisService calls return
+ */
+public class DelphiAnalysis {
+    private final Map<String, String> analysis;
+    private final List<Map<String, Object>> contradictions;
+    private final List<String> suggestions;
+
+    public DelphiAnalysis(Map<String, String> analysis,
+                          List<Map<String, Object>> contradictions,
+                          List<String> suggestions) {
+        this.analysis = analysis;
+        this.contradictions = contradictions;
+        this.suggestions = suggestions;
+    }
+
+    /**
+     * headline, summary, keyInsight, funnyStatement
+     */
+    public Map<String, String> getAnalysis() {
+        return analysis;
+    }
+
+    public List<Map<String, Object>> getContradictions() {
+        return contradictions;
+    }
+
+    public List<String> getSuggestions() {
+        return suggestions;
+    }
+}
@@ -8,11 +8,18 @@ import java.util.*;
  */
 public class DelphiDirectWorkflow {
     
+    private final ClaudeAnalysisService analysisService;
+    
+    public DelphiDirectWorkflow(ClaudeAnalysisService analysisService) {
+        this.analysisService = analysisService;
+    }
+    
     /**
      * Generate poster from CSV file
      */
     public String generatePosterFromCsv(String csvFilePath, String evaluationType) throws Exception {
         System.out.println("📄 Starting Delphi workflow from CSV");
+        LlmRunStats.begin();
         
         // Get configuration
         EvaluationConfig config = EvaluationConfigFactory.getConfig(evaluationType);
@@ -27,6 +34,7 @@ public class DelphiDirectWorkflow {
         }
         
         parser.printSummary(categorized);
+        categorized = StatementDeduplicator.collapse(categorized);
         
         // STEP 2: Convert to list for Claude analysis
         List<String> allStatements = new ArrayList<>();
@@ -36,41 +44,67 @@ public class DelphiDirectWorkflow {
             }
         }
         
-        // STEP 3: Analyze with Claude using ClaudeAnalysisService
-        System.out.println("🤖 Analyzing with Claude for summary and insights...");
-        Map<String, String> analysis = ClaudeAnalysisService.analyzeSummaryAndInsights(allStatements);
-        
-        System.out.println("⚡ Detecting contradictions...");
-        List<Map<String, Object>> contradictions = ClaudeAnalysisService.detectContradictions(categorized);
-        
-        System.out.println("💡 Generating suggestions for teachers...");
-        List<String> suggestions = ClaudeAnalysisService.generateSuggestions(allStatements);
-        
-        // STEP 4: Build graph data using GraphDataService
+        // STEP 3: Build graph data and themes using GraphDataService
         System.out.println("🔗 Calculating similarities...");
-        List<Map<String, Object>> nodes = GraphDataService.buildNodes(categorized);
-        List<Map<String, Object>> edges = GraphDataService.calculateSimilarities(nodes, 0.35);
+        NodeTable nodes = GraphDataService.buildNodes(categorized);
+        EdgeList edges = GraphDataService.calculateSimilarities(nodes, config);
         
         System.out.println("✅ Found " + edges.size() + " connections");
+        System.out.println(SimilarityCache.getShared().getStatsLine());
+        
+        List<StatementCluster> clusters = GraphClustering.findClusters(nodes, edges);
         
         // Position nodes for poster layout
-        GraphDataService.positionNodesForPoster(nodes);
+        GraphDataService.positionNodesForPoster(nodes, edges);
+        
+        String filename = "poster-" + evaluationType + "-" + java.time.LocalDate.now() + ".html";
+        Map<String, List<Statement>> board = categorized;
+        if (analysisService.isDraftPosters()) {
+            DelphiAnalysis draft = analysisService.draftDelphi(nodes, edges, clusters);
+            java.nio.file.Files.writeString(
+                java.nio.file.Paths.get(filename),
+                PosterGenerator.generateDelphiDashboard(nodes, edges, clusters, config,
+                    draft.getAnalysis(), draft.getContradictions(), draft.getSuggestions())
+            );
+            System.out.println("📝 Draft poster saved to: " + filename + " (Claude's analysis replaces it in the background)");
+            PosterJobs.submit(filename, () -> writeAnalyzedPoster(filename, board, allStatements, clusters, nodes, edges, config));
+            return filename;
+        }
+        
+        writeAnalyzedPoster(filename, board, allStatements, clusters, nodes, edges, config);
+        return filename;
+    }
+    
+    /**
+     * Claude analysis and the final poster (steps 4-6)
+     */
+    private void writeAnalyzedPoster(String filename, Map<String, List<Statement>> categorized, List<String> allStatements,
+            List<StatementCluster> clusters, NodeTable nodes, EdgeList edges, EvaluationConfig config) throws Exception {
+        // STEP 4: Analyze with Claude using ClaudeAnalysisService
+        DelphiAnalysis delphiAnalysis = analysisService.analyzeDelphi(categorized, allStatements, clusters, nodes, edges);
+        Map<String, String> analysis = delphiAnalysis.getAnalysis();
+        List<Map<String, Object>> contradictions = delphiAnalysis.getContradictions();
+        List<String> suggestions = delphiAnalysis.getSuggestions();
+        System.out.println(analysisService.getCacheStatsLine());
+        System.out.println(analysisService.getBackendStatsLine());
         
         // STEP 5: Generate poster HTML using PosterGenerator
         System.out.println("🎨 Generating dashboard poster...");
         String htmlPoster = PosterGenerator.generateDelphiDashboard(
-            nodes, edges, config, analysis, contradictions, suggestions, categorized
+            nodes, edges, clusters, config, analysis, contradictions, suggestions
         );
         System.out.println("✅ Poster generated");
         
+        LlmRunStats run = LlmRunStats.end();
+        System.out.println("📈 LLM usage: " + run.getSummaryLine());
+        htmlPoster = PosterGenerator.attachRunMetadata(htmlPoster, run);
+        
         // STEP 6: Save to file
-        String filename = "poster-" + evaluationType + "-" + java.time.LocalDate.now() + ".html";
         java.nio.file.Files.writeString(
             java.nio.file.Paths.get(filename),
             htmlPoster
         );
         
         System.out.println("💾 Saved to: " + filename);
-        return filename;
     }
 }
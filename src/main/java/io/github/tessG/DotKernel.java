@@ -0,0 +1,12 @@
+package io.github.tessG;
+
+/**
+ * Dot product over slices of float arrays
+ * Implemented once with plain loops and once with the Vector API; DotKernels picks one at startup
+ */
+public interface DotKernel {
+
+    String getName();
+
+    float dot(float[] a, int offsetA, float[] b, int offsetB, int length);
+}
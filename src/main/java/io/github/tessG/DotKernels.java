@@ -0,0 +1,45 @@
+package io.github.tessG;
+
+/**
+ * Picks the dot product kernel once at startup
+ * SIMD if the build included it (mvn -P simd) and the jdk.incubator.vector module is in the
+ * boot layer, scalar otherwise. Set HIVEMIND_SCALAR_KERNELS=true to force the fallback.
+ * Experimental: only the opt-in "hashed" metric uses these kernels. The shipped configs
+ * use ngram or levenshtein, which never touch them, and the Docker image has no SIMD kernel.
+ */
+public class DotKernels {
+
+    private static final DotKernel KERNEL = select();
+
+    public static DotKernel get() {
+        return KERNEL;
+    }
+
+    public static DotKernel scalar() {
+        return new ScalarDotKernel();
+    }
+
+    /**
+     * The SIMD kernel, or null if the Vector API is not available in this JVM
+     */
+    public static DotKernel simd() {
+        if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) return null;
+        try {
+            // Loaded reflectively so a missing module cannot break class loading here
+            return (DotKernel) Class.forName("io.github.tessG.SimdDotKernel").getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            System.err.println("⚠️ Vector API kernel not in this build (compile with -P simd)");
+            return null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("⚠️ Vector API kernel unavailable: " + e);
+            return null;
+        }
+    }
+
+    private static DotKernel select() {
+        DotKernel kernel = Boolean.parseBoolean(System.getenv("HIVEMIND_SCALAR_KERNELS")) ? null : simd();
+        if (kernel == null) kernel = scalar();
+        System.out.println("🧮 Similarity kernel: " + kernel.getName());
+        return kernel;
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.tessG;
+
+import java.util.Arrays;
+
+/**
+ * Compact similarity edge list: parallel source/target/similarity columns
+ */
+public class EdgeList {
+    private int size;
+    private int[] source;
+    private int[] target;
+    private float[] similarity;
+    
+    public EdgeList() {
+        this(64);
+    }
+    
+    public EdgeList(int capacity) {
+        capacity = Math.max(1, capacity);
+        source = new int[capacity];
+        target = new int[capacity];
+        similarity = new float[capacity];
+    }
+    
+    public void add(int sourceId, int targetId, double edgeSimilarity) {
+        if (size == source.length) grow(size * 2);
+        source[size] = sourceId;
+        target[size] = targetId;
+        similarity[size] = (float) edgeSimilarity;
+        size++;
+    }
+    
+    /**
+     * Append all edges of another list (used to merge per-thread buffers)
+     */
+    public void addAll(EdgeList other) {
+        if (size + other.size > source.length) grow(Math.max(size + other.size, source.length * 2));
+        System.arraycopy(other.source, 0, source, size, other.size);
+        System.arraycopy(other.target, 0, target, size, other.size);
+        System.arraycopy(other.similarity, 0, similarity, size, other.size);
+        size += other.size;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public int getSource(int index) {
+        return source[index];
+    }
+    
+    public int getTarget(int index) {
+        return target[index];
+    }
+    
+    public float getSimilarity(int index) {
+        return similarity[index];
+    }
+    
+    /**
+     * Packed (source << 32 | target) key, handy for set lookups
+     */
+    public long pairKey(int index) {
+        return ((long) source[index] << 32) | (target[index] & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Copy sorted by (source, target) with source < target, for node ids below nodeCount
+     * Two stable counting sorts: by target, then by source
+     */
+    public EdgeList sorted(int nodeCount) {
+        int[] low = new int[size];
+        int[] high = new int[size];
+        int[] identity = new int[size];
+        for (int e = 0; e < size; e++) {
+            low[e] = Math.min(source[e], target[e]);
+            high[e] = Math.max(source[e], target[e]);
+            identity[e] = e;
+        }
+        int[] order = countingOrder(low, countingOrder(high, identity, nodeCount), nodeCount);
+        
+        EdgeList edges = new EdgeList(size);
+        for (int e : order) {
+            edges.add(low[e], high[e], similarity[e]);
+        }
+        return edges;
+    }
+    
+    private static int[] countingOrder(int[] keys, int[] input, int nodeCount) {
+        int[] start = new int[nodeCount + 1];
+        for (int e : input) start[keys[e] + 1]++;
+        for (int v = 0; v < nodeCount; v++) start[v + 1] += start[v];
+        int[] output = new int[input.length];
+        for (int e : input) output[start[keys[e]]++] = e;
+        return output;
+    }
+    
+    private void grow(int capacity) {
+        source = Arrays.copyOf(source, capacity);
+        target = Arrays.copyOf(target, capacity);
+        similarity = Arrays.copyOf(similarity, capacity);
+    }
+}
@@ -0,0 +1,218 @@
+package io.github.tessG;
+
+/**
+ * Threshold-aware Levenshtein engine used by GraphDataService
+ * Short statements (<= 64 chars) use Myers/Hyyrö bit-parallel distance,
+ * longer ones fall back to a banded DP. Both stop as soon as the
+ * similarity can no longer reach the threshold.
+ *
+ * Scores are identical to the full DP table: 1 - distance / maxLength
+ */
+public class EditDistanceEngine {
+
+    /** Returned by similarityAtLeast when the pair is below the threshold */
+    public static final double NO_MATCH = -1.0;
+
+    private static final int WORD_SIZE = 64;
+
+    // Scratch buffers are reused per thread to keep the all-pairs loop allocation-free
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Exact similarity (same result as the classic DP table)
+     */
+    public static double similarity(String s1, String s2) {
+        return similarityAtLeast(s1, s2, 0.0);
+    }
+
+    /**
+     * Similarity if it is >= threshold, otherwise NO_MATCH.
+     * Inputs are expected to be lowercased already.
+     */
+    public static double similarityAtLeast(String s1, String s2, double threshold) {
+        if (s1.equals(s2)) return 1.0;
+
+        int len1 = s1.length();
+        int len2 = s2.length();
+        int maxLen = Math.max(len1, len2);
+
+        int maxDistance = maxAllowedDistance(maxLen, threshold);
+        if (maxDistance < 0) return NO_MATCH;
+
+        // Length ratio filter: distance is at least the length difference
+        if (Math.abs(len1 - len2) > maxDistance) return NO_MATCH;
+
+        // Pattern is the shorter string, text the longer one
+        String pattern = len1 <= len2 ? s1 : s2;
+        String text = len1 <= len2 ? s2 : s1;
+
+        int distance;
+        if (pattern.isEmpty()) {
+            distance = text.length();
+        } else if (pattern.length() <= WORD_SIZE) {
+            distance = myersDistance(pattern, text, maxDistance);
+        } else {
+            distance = bandedDistance(pattern, text, maxDistance);
+        }
+
+        if (distance > maxDistance) return NO_MATCH;
+        return 1.0 - ((double) distance / maxLen);
+    }
+
+    /**
+     * Largest distance d for which 1 - d/maxLen >= threshold.
+     * Evaluated with the exact same floating point expression as the score
+     * so the early exit never drops an edge the full table would keep.
+     */
+    static int maxAllowedDistance(int maxLen, double threshold) {
+        int d = (int) Math.floor((1.0 - threshold) * maxLen);
+        d = Math.max(-1, Math.min(maxLen, d));
+        while (d < maxLen && 1.0 - ((double) (d + 1) / maxLen) >= threshold) d++;
+        while (d >= 0 && 1.0 - ((double) d / maxLen) < threshold) d--;
+        return d;
+    }
+
+    /**
+     * Myers/Hyyrö bit-vector edit distance, pattern length <= 64.
+     * Returns maxDistance + 1 once the distance cannot stay within maxDistance.
+     */
+    private static int myersDistance(String pattern, String text, int maxDistance) {
+        Scratch scratch = SCRATCH.get();
+        int m = pattern.length();
+        int n = text.length();
+
+        scratch.loadPattern(pattern);
+
+        long pv = m == WORD_SIZE ? -1L : (1L << m) - 1;
+        long mv = 0L;
+        long last = 1L << (m - 1);
+        int score = m;
+
+        for (int j = 0; j < n; j++) {
+            long eq = scratch.mask(text.charAt(j));
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+
+            if ((ph & last) != 0) score++;
+            else if ((mh & last) != 0) score--;
+
+            // Row 0 grows by one per text char in global alignment
+            ph = (ph << 1) | 1L;
+            mh = mh << 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+
+            // Each remaining column can lower the score by at most one
+            if (score - (n - j - 1) > maxDistance) {
+                scratch.clearPattern(pattern);
+                return maxDistance + 1;
+            }
+        }
+
+        scratch.clearPattern(pattern);
+        return score;
+    }
+
+    /**
+     * Ukkonen banded DP for long statements.
+     * Only cells within maxDistance of the diagonal are computed.
+     */
+    private static int bandedDistance(String pattern, String text, int maxDistance) {
+        Scratch scratch = SCRATCH.get();
+        int m = pattern.length();
+        int n = text.length();
+        int outside = maxDistance + 1;
+
+        int[] prev = scratch.row(0, n + 1);
+        int[] curr = scratch.row(1, n + 1);
+
+        int firstEnd = Math.min(n, maxDistance);
+        for (int j = 0; j <= firstEnd; j++) prev[j] = j;
+        if (firstEnd < n) prev[firstEnd + 1] = outside;
+
+        for (int i = 1; i <= m; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(n, i + maxDistance);
+            char pc = pattern.charAt(i - 1);
+
+            curr[from - 1] = from == 1 ? Math.min(i, outside) : outside;
+            int rowMin = curr[from - 1];
+
+            for (int j = from; j <= to; j++) {
+                int cost = pc == text.charAt(j - 1) ? prev[j - 1] : 1 + Math.min(prev[j - 1], Math.min(prev[j], curr[j - 1]));
+                if (cost > outside) cost = outside;
+                curr[j] = cost;
+                if (cost < rowMin) rowMin = cost;
+            }
+            if (to < n) curr[to + 1] = outside;
+
+            if (rowMin > maxDistance) return outside;
+
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+
+        return Math.min(prev[n], outside);
+    }
+
+    /**
+     * Per-thread buffers: pattern bitmasks and two DP rows
+     */
+    private static final class Scratch {
+        private final long[] latin = new long[256];
+        private final char[] extKeys = new char[WORD_SIZE];
+        private final long[] extMasks = new long[WORD_SIZE];
+        private int extCount;
+        private int[][] rows = new int[2][128];
+
+        void loadPattern(String pattern) {
+            extCount = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                long bit = 1L << i;
+                if (c < 256) {
+                    latin[c] |= bit;
+                } else {
+                    int k = indexOf(c);
+                    if (k < 0) {
+                        k = extCount++;
+                        extKeys[k] = c;
+                        extMasks[k] = 0L;
+                    }
+                    extMasks[k] |= bit;
+                }
+            }
+        }
+
+        void clearPattern(String pattern) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < 256) latin[c] = 0L;
+            }
+            extCount = 0;
+        }
+
+        long mask(char c) {
+            if (c < 256) return latin[c];
+            int k = indexOf(c);
+            return k < 0 ? 0L : extMasks[k];
+        }
+
+        int[] row(int index, int size) {
+            if (rows[index].length < size) {
+                rows[index] = new int[Math.max(size, rows[index].length * 2)];
+            }
+            return rows[index];
+        }
+
+        private int indexOf(char c) {
+            for (int k = 0; k < extCount; k++) {
+                if (extKeys[k] == c) return k;
+            }
+            return -1;
+        }
+    }
+}
@@ -10,14 +10,42 @@ public class EvaluationConfig {
     private List<Category> categories;
     private String headerColor;
     private String summaryColor;
+    private String similarityMetric;
+    private double similarityThreshold;
+    private int maxNeighbours;
+    private boolean approximateLargeBoards;
     
     public EvaluationConfig(String type, String title, List<Category> categories, 
                            String headerColor, String summaryColor) {
+        this(type, title, categories, headerColor, summaryColor, LevenshteinMetric.NAME, 0.35);
+    }
+    
+    public EvaluationConfig(String type, String title, List<Category> categories,
+                           String headerColor, String summaryColor,
+                           String similarityMetric, double similarityThreshold) {
+        this(type, title, categories, headerColor, summaryColor, similarityMetric, similarityThreshold, 0);
+    }
+    
+    public EvaluationConfig(String type, String title, List<Category> categories,
+                           String headerColor, String summaryColor,
+                           String similarityMetric, double similarityThreshold, int maxNeighbours) {
+        this(type, title, categories, headerColor, summaryColor, similarityMetric, similarityThreshold,
+             maxNeighbours, false);
+    }
+    
+    public EvaluationConfig(String type, String title, List<Category> categories,
+                           String headerColor, String summaryColor,
+                           String similarityMetric, double similarityThreshold, int maxNeighbours,
+                           boolean approximateLargeBoards) {
         this.type = type;
         this.title = title;
         this.categories = categories;
         this.headerColor = headerColor;
         this.summaryColor = summaryColor;
+        this.similarityMetric = similarityMetric;
+        this.similarityThreshold = similarityThreshold;
+        this.maxNeighbours = maxNeighbours;
+        this.approximateLargeBoards = approximateLargeBoards;
     }
     
     public String getType() {
@@ -40,6 +68,32 @@ public class EvaluationConfig {
         return summaryColor;
     }
     
+    /**
+     * Name of the SimilarityMetric used for the statement graph
+     */
+    public String getSimilarityMetric() {
+        return similarityMetric;
+    }
+    
+    public double getSimilarityThreshold() {
+        return similarityThreshold;
+    }
+    
+    /**
+     * k for the k-NN similarity graph, 0 keeps every edge above the threshold
+     */
+    public int getMaxNeighbours() {
+        return maxNeighbours;
+    }
+    
+    /**
+     * Score only MinHash/LSH candidate pairs on very large boards (misses some edges)
+     * Off unless recall has been measured for this config's metric and threshold.
+     */
+    public boolean isApproximateLargeBoards() {
+        return approximateLargeBoards;
+    }
+    
     public int getCategoryCount() {
         return categories.size();
     }
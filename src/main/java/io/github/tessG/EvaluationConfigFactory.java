@@ -39,7 +39,35 @@ public class EvaluationConfigFactory {
             "Student Evaluering - Keep, Stop, Start",
             categories,
             "#805ad5",  // Purple header
-            "#6b46c1"   // Darker purple summary
+            "#6b46c1",  // Darker purple summary
+            CharNgramCosineMetric.NAME,  // Trigrams handle Danish inflections better than edit distance
+            0.3,
+            6                            // At most 6 neighbours per statement keeps big boards readable
+        );
+    }
+    
+    /**
+     * Keep/Stop/Start over a whole cohort's export (thousands of posts)
+     * Edit similarity, since the LSH blocking is tuned for it (MinHashIndex); from
+     * 5000 statements only LSH candidates are scored and the sampled recall is logged.
+     */
+    public static EvaluationConfig getDelphiCohort() {
+        List<Category> categories = Arrays.asList(
+            new Category("Keep Doing", "✅", "#48bb78"),
+            new Category("Stop Doing", "🛑", "#f56565"),
+            new Category("Start Doing", "⭐", "#4299e1")
+        );
+        
+        return new EvaluationConfig(
+            "delphi-cohort",
+            "Student Evaluering - hele årgangen",
+            categories,
+            "#805ad5",
+            "#6b46c1",
+            LevenshteinMetric.NAME,
+            0.35,
+            6,
+            true                         // Approximate (LSH) from 5000 statements
         );
     }
     
@@ -59,7 +87,10 @@ public class EvaluationConfigFactory {
             "Evaluering og forbedringspunkter",
             categories,
             "#805ad5",  
-            "#6b46c1"   
+            "#6b46c1",
+            CharNgramCosineMetric.NAME,
+            0.3,
+            6
         );
     }
     
@@ -87,6 +118,8 @@ public class EvaluationConfigFactory {
             case "delphi":
             case "keep-stop-start":
                 return getDelphi();
+            case "delphi-cohort":
+                return getDelphiCohort();
             case "delphi-4":
             case "delphi-four":
                 return getDelphiFourCategory();
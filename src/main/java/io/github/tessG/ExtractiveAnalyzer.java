@@ -0,0 +1,183 @@
+package io.github.tessG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local summary without an LLM: TextRank over the similarity graph
+ * Weighted PageRank on the statement graph (votes bias the teleport step)
+ * ranks statements by how central they are. The headline is the top statement,
+ * the summary quotes the top statements of different themes, the key insight
+ * names the largest theme, and the funny statement is the lexical outlier:
+ * rare words and few ties to the rest of the board.
+ * Fills the same keys as the Claude summary (SummaryResult).
+ */
+public class ExtractiveAnalyzer {
+
+    private static final double DAMPING = 0.85;
+    private static final int MAX_ITERATIONS = 100;
+    private static final double TOLERANCE = 1e-9;
+    private static final int SUMMARY_STATEMENTS = 3;
+    private static final int HEADLINE_LENGTH = 70;
+    private static final int MIN_OUTLIER_TOKENS = 3;
+
+    // Graph for plain statement lists (DSC): same metric and threshold as the Delphi config
+    private static final String TEXT_CATEGORY = "Udsagn";
+    private static final double TEXT_THRESHOLD = 0.3;
+
+    /**
+     * Summary of a board whose similarity graph and themes are already built
+     */
+    public static SummaryResult summarize(NodeTable nodes, EdgeList edges, List<StatementCluster> clusters) {
+        int n = nodes.size();
+        if (n == 0) {
+            return new SummaryResult("Ingen udsagn endnu", "Tavlen er tom.", "-", "-");
+        }
+
+        CsrGraph graph = CsrGraph.fromEdges(n, edges);
+        double[] rank = textRank(graph, nodes);
+        Integer[] order = new Integer[n];
+        for (int v = 0; v < n; v++) order[v] = v;
+        Arrays.sort(order, (a, b) -> rank[a] != rank[b] ? Double.compare(rank[b], rank[a]) : a - b);
+
+        // Theme per node; statements outside every theme count as their own
+        int[] theme = new int[n];
+        Arrays.fill(theme, -1);
+        for (StatementCluster cluster : clusters) {
+            for (int member : cluster.getNodeIds()) theme[member] = cluster.getId();
+        }
+
+        List<Integer> picked = new ArrayList<>();
+        for (int v : order) {
+            if (picked.size() == SUMMARY_STATEMENTS) break;
+            boolean sameTheme = false;
+            for (int p : picked) sameTheme |= theme[v] >= 0 && theme[v] == theme[p];
+            if (!sameTheme) picked.add(v);
+        }
+
+        String headline = shorten(nodes.getText(order[0]), HEADLINE_LENGTH);
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(n).append(" udsagn, ").append(clusters.size()).append(" temaer. ");
+        summary.append("Mest centralt: \"").append(nodes.getText(picked.get(0))).append("\".");
+        if (picked.size() > 1) {
+            summary.append(" Fra andre temaer: ");
+            for (int i = 1; i < picked.size(); i++) {
+                if (i > 1) summary.append(i == picked.size() - 1 ? " og " : ", ");
+                summary.append('"').append(nodes.getText(picked.get(i))).append('"');
+            }
+            summary.append('.');
+        }
+
+        String keyInsight;
+        if (clusters.isEmpty()) {
+            keyInsight = "Ingen gentagne temaer: udsagnene peger i hver sin retning";
+        } else {
+            StatementCluster largest = clusters.get(0);
+            keyInsight = "Største tema samler " + largest.getSize() + " udsagn"
+                + (largest.getKeywords().isEmpty() ? "" : " om " + String.join(", ", largest.getKeywords()))
+                + ", fx \"" + nodes.getText(largest.getRepresentative()) + "\"";
+        }
+
+        return new SummaryResult(headline, summary.toString(), keyInsight,
+            nodes.getText(lexicalOutlier(nodes, graph, order)));
+    }
+
+    /**
+     * Summary of a plain statement list; builds its own graph and themes
+     */
+    public static SummaryResult summarize(List<String> statements) {
+        NodeTable nodes = new NodeTable(statements.size());
+        for (String statement : statements) {
+            GraphDataService.addNode(nodes, TEXT_CATEGORY, new Statement(statement, TEXT_CATEGORY));
+        }
+        EdgeList edges = GraphDataService.calculateSimilarities(nodes, new CharNgramCosineMetric(), TEXT_THRESHOLD);
+        return summarize(nodes, edges, GraphClustering.findClusters(nodes, edges));
+    }
+
+    /**
+     * Weighted PageRank, teleporting in proportion to each statement's votes
+     * Rank from isolated statements is handed back through the teleport step.
+     */
+    public static double[] textRank(CsrGraph graph, NodeTable nodes) {
+        int n = graph.getNodeCount();
+        double[] prior = new double[n];
+        double priorTotal = 0;
+        for (int v = 0; v < n; v++) {
+            prior[v] = Math.max(1, nodes.getWeight(v));
+            priorTotal += prior[v];
+        }
+        double[] degree = new double[n];
+        for (int v = 0; v < n; v++) {
+            prior[v] /= priorTotal;
+            degree[v] = graph.getWeightedDegree(v);
+        }
+
+        double[] rank = Arrays.copyOf(prior, n);
+        double[] next = new double[n];
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double dangling = 0;
+            for (int v = 0; v < n; v++) {
+                if (degree[v] == 0) dangling += rank[v];
+            }
+            for (int v = 0; v < n; v++) {
+                next[v] = (1 - DAMPING + DAMPING * dangling) * prior[v];
+            }
+            for (int v = 0; v < n; v++) {
+                if (degree[v] == 0) continue;
+                double share = DAMPING * rank[v] / degree[v];
+                for (int slot = graph.getStart(v); slot < graph.getEnd(v); slot++) {
+                    next[graph.getNeighbour(slot)] += share * graph.getWeight(slot);
+                }
+            }
+
+            double change = 0;
+            for (int v = 0; v < n; v++) change += Math.abs(next[v] - rank[v]);
+            double[] swap = rank;
+            rank = next;
+            next = swap;
+            if (change < TOLERANCE) break;
+        }
+        return rank;
+    }
+
+    /**
+     * Highest mean idf over weighted degree + 1: unusual words, weakly tied to the board
+     * Very short statements are skipped; the least central statement if none qualifies.
+     */
+    private static int lexicalOutlier(NodeTable nodes, CsrGraph graph, Integer[] order) {
+        int n = nodes.size();
+        String[] texts = new String[n];
+        for (int v = 0; v < n; v++) texts[v] = nodes.getText(v).toLowerCase();
+        List<List<String>> tokens = SparseVectors.tokenize(texts);
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        for (List<String> row : tokens) {
+            for (String token : new HashSet<>(row)) documentFrequency.merge(token, 1, Integer::sum);
+        }
+
+        int best = order[n - 1];
+        double bestScore = -1;
+        for (int v = 0; v < n; v++) {
+            List<String> row = tokens.get(v);
+            if (row.size() < MIN_OUTLIER_TOKENS) continue;
+            double idf = 0;
+            for (String token : row) idf += Math.log((double) (n + 1) / documentFrequency.get(token));
+            double score = idf / row.size() / (1 + graph.getWeightedDegree(v));
+            if (score > bestScore) {
+                best = v;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static String shorten(String text, int maxLength) {
+        if (text.length() <= maxLength) return text;
+        int cut = text.lastIndexOf(' ', maxLength);
+        return text.substring(0, cut > maxLength / 2 ? cut : maxLength) + "…";
+    }
+}
@@ -0,0 +1,391 @@
+package io.github.tessG;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Server-side force-directed layout for the similarity graph
+ * Fruchterman-Reingold style: Barnes-Hut quadtree repulsion (O(n log n)),
+ * spring attraction along similarity edges and a pull towards each
+ * category's anchor, followed by a rectangle overlap-removal pass.
+ * Works on primitive center coordinates; writes top-left x/y back to the NodeTable.
+ */
+public class ForceDirectedLayout {
+
+    // Similarity SVG in the Delphi dashboard
+    public static final int CANVAS_WIDTH = 1200;
+    public static final int CANVAS_HEIGHT = 800;
+
+    private static final int MARGIN = 10;
+    private static final int NODE_PADDING = 6;
+
+    // Iteration budget: full for ordinary boards, scaled down for very large ones
+    private static final int ITERATIONS = 250;
+    private static final int MIN_ITERATIONS = 50;
+    private static final int FULL_ITERATION_NODES = 500;
+    private static final int OVERLAP_PASSES = 60;
+    private static final int CROWDED_OVERLAP_PASSES = 5;
+    private static final double THETA = 0.8;
+    private static final double ANCHOR_STRENGTH = 0.04;
+    private static final long SEED = 42L;
+
+    private final int width;
+    private final int height;
+
+    public ForceDirectedLayout() {
+        this(CANVAS_WIDTH, CANVAS_HEIGHT);
+    }
+
+    public ForceDirectedLayout(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Position every node, whatever its category
+     */
+    public void layout(NodeTable nodes, EdgeList edges) {
+        int n = nodes.size();
+        if (n == 0) return;
+
+        double[][] anchors = categoryAnchors(nodes);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] dx = new double[n];
+        double[] dy = new double[n];
+
+        // Start every node near its category anchor
+        Random random = new Random(SEED);
+        for (int i = 0; i < n; i++) {
+            double[] anchor = anchors[nodes.getCategoryId(i)];
+            x[i] = anchor[0] + (random.nextDouble() - 0.5) * 120;
+            y[i] = anchor[1] + (random.nextDouble() - 0.5) * 120;
+        }
+
+        double usableArea = (double) (width - 2 * MARGIN) * (height - 2 * MARGIN);
+        double k = Math.max(60.0, Math.sqrt(usableArea / n) * 0.75);
+        int iterations = iterationsFor(n);
+        double temperature = width / 10.0;
+        double cooling = temperature / (iterations + 1);
+        QuadTree tree = new QuadTree(n);
+
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            Arrays.fill(dx, 0);
+            Arrays.fill(dy, 0);
+
+            // Repulsion between all nodes via Barnes-Hut
+            tree.build(x, y);
+            for (int i = 0; i < n; i++) {
+                tree.accumulateRepulsion(i, x[i], y[i], k * k, dx, dy);
+            }
+
+            // Attraction along edges, stronger for more similar statements
+            for (int e = 0; e < edges.size(); e++) {
+                int a = edges.getSource(e);
+                int b = edges.getTarget(e);
+                double ex = x[a] - x[b];
+                double ey = y[a] - y[b];
+                double distance = Math.max(0.01, Math.sqrt(ex * ex + ey * ey));
+                double force = distance * distance / k * edges.getSimilarity(e);
+                dx[a] -= ex / distance * force;
+                dy[a] -= ey / distance * force;
+                dx[b] += ex / distance * force;
+                dy[b] += ey / distance * force;
+            }
+
+            // Category clustering: spring towards the category anchor
+            for (int i = 0; i < n; i++) {
+                double[] anchor = anchors[nodes.getCategoryId(i)];
+                dx[i] += (anchor[0] - x[i]) * ANCHOR_STRENGTH * k;
+                dy[i] += (anchor[1] - y[i]) * ANCHOR_STRENGTH * k;
+            }
+
+            // Move, capped by the temperature, and keep centers on the canvas
+            for (int i = 0; i < n; i++) {
+                double length = Math.sqrt(dx[i] * dx[i] + dy[i] * dy[i]);
+                if (length > 0) {
+                    double step = Math.min(length, temperature);
+                    x[i] += dx[i] / length * step;
+                    y[i] += dy[i] / length * step;
+                }
+                clamp(nodes, i, x, y);
+            }
+            temperature -= cooling;
+        }
+
+        removeOverlaps(nodes, x, y);
+
+        for (int i = 0; i < n; i++) {
+            nodes.setPosition(i, (float) (x[i] - nodes.getWidth(i) / 2.0), (float) (y[i] - nodes.getHeight(i) / 2.0));
+        }
+    }
+
+    private static int iterationsFor(int n) {
+        if (n <= FULL_ITERATION_NODES) return ITERATIONS;
+        return Math.max(MIN_ITERATIONS, (int) ((long) ITERATIONS * FULL_ITERATION_NODES / n));
+    }
+
+    /**
+     * Keep/Start/Stop keep the regions of the old grid; other categories are spread on an ellipse
+     */
+    private double[][] categoryAnchors(NodeTable nodes) {
+        int count = nodes.getCategoryCount();
+        double[][] anchors = new double[count][];
+        double centerX = width / 2.0;
+        double centerY = height / 2.0;
+
+        for (int c = 0; c < count; c++) {
+            String name = nodes.getCategoryName(c);
+            if (name.equals("Keep Doing")) {
+                anchors[c] = new double[]{width * 0.2, height * 0.35};
+            } else if (name.equals("Start Doing")) {
+                anchors[c] = new double[]{width * 0.75, height * 0.35};
+            } else if (name.equals("Stop Doing")) {
+                anchors[c] = new double[]{width * 0.45, height * 0.8};
+            } else {
+                double angle = 2 * Math.PI * c / count - Math.PI / 2;
+                anchors[c] = new double[]{
+                    centerX + Math.cos(angle) * width * 0.3,
+                    centerY + Math.sin(angle) * height * 0.3
+                };
+            }
+        }
+        return anchors;
+    }
+
+    private void clamp(NodeTable nodes, int i, double[] x, double[] y) {
+        double halfW = nodes.getWidth(i) / 2.0;
+        double halfH = nodes.getHeight(i) / 2.0;
+        x[i] = Math.max(MARGIN + halfW, Math.min(width - MARGIN - halfW, x[i]));
+        y[i] = Math.max(MARGIN + halfH, Math.min(height - MARGIN - halfH, y[i]));
+    }
+
+    /**
+     * Push overlapping boxes apart along the axis of least overlap
+     * A uniform grid limits each check to neighbouring cells. When the boxes
+     * cannot fit on the canvas at all, only a few passes are spent on it.
+     */
+    private void removeOverlaps(NodeTable nodes, double[] x, double[] y) {
+        int n = nodes.size();
+        double cell = 0;
+        double boxArea = 0;
+        for (int i = 0; i < n; i++) {
+            cell = Math.max(cell, Math.max(nodes.getWidth(i), nodes.getHeight(i)) + NODE_PADDING);
+            boxArea += (double) (nodes.getWidth(i) + NODE_PADDING) * (nodes.getHeight(i) + NODE_PADDING);
+        }
+        int passes = boxArea > (double) width * height ? CROWDED_OVERLAP_PASSES : OVERLAP_PASSES;
+        int cols = (int) Math.ceil(width / cell) + 1;
+        int rows = (int) Math.ceil(height / cell) + 1;
+        int[] head = new int[cols * rows];
+        int[] next = new int[n];
+
+        for (int pass = 0; pass < passes; pass++) {
+            Arrays.fill(head, -1);
+            for (int i = 0; i < n; i++) {
+                int c = cellOf(x[i], y[i], cell, cols, rows);
+                next[i] = head[c];
+                head[c] = i;
+            }
+
+            boolean moved = false;
+            for (int i = 0; i < n; i++) {
+                int cx = Math.min(cols - 1, Math.max(0, (int) (x[i] / cell)));
+                int cy = Math.min(rows - 1, Math.max(0, (int) (y[i] / cell)));
+                for (int gy = Math.max(0, cy - 1); gy <= Math.min(rows - 1, cy + 1); gy++) {
+                    for (int gx = Math.max(0, cx - 1); gx <= Math.min(cols - 1, cx + 1); gx++) {
+                        for (int j = head[gy * cols + gx]; j >= 0; j = next[j]) {
+                            if (j <= i) continue;
+                            moved |= separate(nodes, i, j, x, y);
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) clamp(nodes, i, x, y);
+            if (!moved) break;
+        }
+    }
+
+    private static boolean separate(NodeTable nodes, int i, int j, double[] x, double[] y) {
+        double overlapX = (nodes.getWidth(i) + nodes.getWidth(j)) / 2.0 + NODE_PADDING - Math.abs(x[i] - x[j]);
+        double overlapY = (nodes.getHeight(i) + nodes.getHeight(j)) / 2.0 + NODE_PADDING - Math.abs(y[i] - y[j]);
+        if (overlapX <= 0 || overlapY <= 0) return false;
+
+        if (overlapX < overlapY) {
+            double shift = overlapX / 2 * (x[i] < x[j] || (x[i] == x[j] && i < j) ? -1 : 1);
+            x[i] += shift;
+            x[j] -= shift;
+        } else {
+            double shift = overlapY / 2 * (y[i] < y[j] || (y[i] == y[j] && i < j) ? -1 : 1);
+            y[i] += shift;
+            y[j] -= shift;
+        }
+        return true;
+    }
+
+    private static int cellOf(double x, double y, double cell, int cols, int rows) {
+        int cx = Math.min(cols - 1, Math.max(0, (int) (x / cell)));
+        int cy = Math.min(rows - 1, Math.max(0, (int) (y / cell)));
+        return cy * cols + cx;
+    }
+
+    /**
+     * Barnes-Hut quadtree in flat arrays, rebuilt every iteration
+     * Each cell stores its bounds, body count and summed body positions
+     */
+    private static final class QuadTree {
+        private static final int MAX_DEPTH = 24;
+
+        private int cellCount;
+        private int[] firstChild;     // index of 4 consecutive children, -1 for a leaf
+        private int[] body;           // body index for a leaf holding one body, -1 otherwise
+        private int[] mass;
+        private double[] sumX;
+        private double[] sumY;
+        private double[] minX;
+        private double[] minY;
+        private double[] size;
+
+        private double[] x;
+        private double[] y;
+        private final int[] stack = new int[MAX_DEPTH * 4 + 4];
+
+        QuadTree(int bodies) {
+            allocate(Math.max(16, bodies * 4));
+        }
+
+        void build(double[] bodyX, double[] bodyY) {
+            this.x = bodyX;
+            this.y = bodyY;
+            double loX = Double.MAX_VALUE;
+            double loY = Double.MAX_VALUE;
+            double hiX = -Double.MAX_VALUE;
+            double hiY = -Double.MAX_VALUE;
+            for (int i = 0; i < bodyX.length; i++) {
+                loX = Math.min(loX, bodyX[i]);
+                loY = Math.min(loY, bodyY[i]);
+                hiX = Math.max(hiX, bodyX[i]);
+                hiY = Math.max(hiY, bodyY[i]);
+            }
+
+            cellCount = 0;
+            int root = newCell(loX, loY, Math.max(hiX - loX, hiY - loY) + 1);
+            for (int i = 0; i < bodyX.length; i++) {
+                insert(root, i, 0);
+            }
+        }
+
+        /**
+         * Add k²/d repulsion on body i from every cell that is far enough away
+         */
+        void accumulateRepulsion(int i, double bx, double by, double kSquared, double[] dx, double[] dy) {
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int cell = stack[--top];
+                if (mass[cell] == 0 || body[cell] == i) continue;
+
+                double cx = sumX[cell] / mass[cell];
+                double cy = sumY[cell] / mass[cell];
+                double ex = bx - cx;
+                double ey = by - cy;
+                double distSq = ex * ex + ey * ey;
+
+                if (firstChild[cell] < 0 || size[cell] * size[cell] < THETA * THETA * distSq) {
+                    if (distSq < 0.01) {
+                        // Coincident: nudge apart deterministically
+                        ex = ((i * 31) % 7) - 3 + 0.5;
+                        ey = ((i * 17) % 5) - 2 + 0.5;
+                        distSq = ex * ex + ey * ey;
+                    }
+                    // Leaf cells that contain i itself (stacked bodies) exclude it from the mass
+                    int others = mass[cell];
+                    if (firstChild[cell] < 0 && body[cell] < 0 && containsPoint(cell, bx, by)) others--;
+                    double force = kSquared * others / distSq;
+                    dx[i] += ex * force;
+                    dy[i] += ey * force;
+                } else {
+                    for (int c = 0; c < 4; c++) {
+                        if (top < stack.length) stack[top++] = firstChild[cell] + c;
+                    }
+                }
+            }
+        }
+
+        private void insert(int cell, int i, int depth) {
+            while (true) {
+                mass[cell]++;
+                sumX[cell] += x[i];
+                sumY[cell] += y[i];
+
+                if (firstChild[cell] < 0) {
+                    if (mass[cell] == 1) {
+                        body[cell] = i;
+                        return;
+                    }
+                    if (depth >= MAX_DEPTH) {
+                        // Stacked bodies: keep them aggregated in this leaf
+                        body[cell] = -1;
+                        return;
+                    }
+                    // Split and push the existing body down
+                    int existing = body[cell];
+                    body[cell] = -1;
+                    subdivide(cell);
+                    if (existing >= 0) {
+                        int child = childFor(cell, x[existing], y[existing]);
+                        mass[child]++;
+                        sumX[child] += x[existing];
+                        sumY[child] += y[existing];
+                        body[child] = existing;
+                    }
+                }
+                cell = childFor(cell, x[i], y[i]);
+                depth++;
+            }
+        }
+
+        private boolean containsPoint(int cell, double px, double py) {
+            return px >= minX[cell] && px <= minX[cell] + size[cell] && py >= minY[cell] && py <= minY[cell] + size[cell];
+        }
+
+        private void subdivide(int cell) {
+            double half = size[cell] / 2;
+            int first = newCell(minX[cell], minY[cell], half);
+            newCell(minX[cell] + half, minY[cell], half);
+            newCell(minX[cell], minY[cell] + half, half);
+            newCell(minX[cell] + half, minY[cell] + half, half);
+            firstChild[cell] = first;
+        }
+
+        private int childFor(int cell, double px, double py) {
+            double half = size[cell] / 2;
+            int quadrant = (px >= minX[cell] + half ? 1 : 0) + (py >= minY[cell] + half ? 2 : 0);
+            return firstChild[cell] + quadrant;
+        }
+
+        private int newCell(double cellMinX, double cellMinY, double cellSize) {
+            if (cellCount == mass.length) allocate(mass.length * 2);
+            int cell = cellCount++;
+            firstChild[cell] = -1;
+            body[cell] = -1;
+            mass[cell] = 0;
+            sumX[cell] = 0;
+            sumY[cell] = 0;
+            minX[cell] = cellMinX;
+            minY[cell] = cellMinY;
+            size[cell] = cellSize;
+            return cell;
+        }
+
+        private void allocate(int capacity) {
+            firstChild = firstChild == null ? new int[capacity] : Arrays.copyOf(firstChild, capacity);
+            body = body == null ? new int[capacity] : Arrays.copyOf(body, capacity);
+            mass = mass == null ? new int[capacity] : Arrays.copyOf(mass, capacity);
+            sumX = sumX == null ? new double[capacity] : Arrays.copyOf(sumX, capacity);
+            sumY = sumY == null ? new double[capacity] : Arrays.copyOf(sumY, capacity);
+            minX = minX == null ? new double[capacity] : Arrays.copyOf(minX, capacity);
+            minY = minY == null ? new double[capacity] : Arrays.copyOf(minY, capacity);
+            size = size == null ? new double[capacity] : Arrays.copyOf(size, capacity);
+        }
+    }
+}
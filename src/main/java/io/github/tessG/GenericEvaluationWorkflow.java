@@ -8,10 +8,22 @@ import java.util.*;
  */
 public class GenericEvaluationWorkflow {
     
+    // Live boards are refreshed repeatedly during class; keep their graphs between runs
+    private static final int MAX_LIVE_GRAPHS = 32;
+    private static final Map<String, IncrementalSimilarityGraph> LIVE_GRAPHS =
+        Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IncrementalSimilarityGraph> eldest) {
+                return size() > MAX_LIVE_GRAPHS;
+            }
+        });
+    
     private final PadletParser padletParser;
+    private final ClaudeAnalysisService analysisService;
     
-    public GenericEvaluationWorkflow(String padletApiKey) {
+    public GenericEvaluationWorkflow(String padletApiKey, ClaudeAnalysisService analysisService) {
         this.padletParser = new PadletParser(padletApiKey);
+        this.analysisService = analysisService;
     }
     
     /**
@@ -20,6 +32,7 @@ public class GenericEvaluationWorkflow {
      */
     public String executeDSCWorkflow(String padletId, String evaluationType) throws Exception {
         System.out.println("🔄 Starting DSC workflow from Padlet");
+        LlmRunStats.begin();
         
         // Get configuration
         EvaluationConfig config = EvaluationConfigFactory.getConfig(evaluationType);
@@ -28,17 +41,22 @@ public class GenericEvaluationWorkflow {
         System.out.println("📥 Fetching statements from Padlet...");
         List<String> statements = padletParser.fetchStatements(padletId);
         System.out.println("✅ Retrieved " + statements.size() + " statements");
+        statements = StatementDeduplicator.collapseTexts(statements);
         
         // STEP 2: Analyze with Claude
         System.out.println("🤖 Analyzing with Claude...");
-        Map<String, String> analysis = ClaudeAnalysisService.analyzeSummaryAndInsights(statements);
+        Map<String, String> analysis = analysisService.analyzeSummaryAndInsights(statements);
         
         // STEP 3: Generate poster (DSC format - to be implemented)
         System.out.println("🎨 Generating DSC poster...");
 
-        String htmlPoster = PosterGenerator.generateDSCPoster(statements, config, analysis);
+        String htmlPoster = PosterGenerator.generateDSCPoster(statements, config, analysis, analysisService);
         System.out.println("✅ Poster generated");
         
+        LlmRunStats run = LlmRunStats.end();
+        System.out.println("📈 LLM usage: " + run.getSummaryLine());
+        htmlPoster = PosterGenerator.attachRunMetadata(htmlPoster, run);
+        
         // STEP 4: Save to file
         String filename = "poster-" + evaluationType + "-" + java.time.LocalDate.now() + ".html";
         java.nio.file.Files.writeString(
@@ -56,6 +74,7 @@ public class GenericEvaluationWorkflow {
      */
     public String executeDelphiWorkflow(String padletId, String evaluationType) throws Exception {
         System.out.println("📄 Starting Delphi workflow from Padlet");
+        LlmRunStats.begin();
         
         // Get configuration
         EvaluationConfig config = EvaluationConfigFactory.getConfig(evaluationType);
@@ -67,6 +86,7 @@ public class GenericEvaluationWorkflow {
         if (categorized.isEmpty()) {
             throw new RuntimeException("No statements found in Padlet");
         }
+        categorized = StatementDeduplicator.collapse(categorized);
         
         // STEP 2: Convert to list for analysis
         List<String> allStatements = new ArrayList<>();
@@ -76,42 +96,100 @@ public class GenericEvaluationWorkflow {
             }
         }
         
-        // STEP 3: Analyze with Claude using ClaudeAnalysisService
-        System.out.println("🤖 Analyzing with Claude for summary and insights...");
-        Map<String, String> analysis = ClaudeAnalysisService.analyzeSummaryAndInsights(allStatements);
-        
-        System.out.println("⚡ Detecting contradictions...");
-        List<Map<String, Object>> contradictions = ClaudeAnalysisService.detectContradictions(categorized);
-        
-        System.out.println("💡 Generating suggestions for teachers...");
-        List<String> suggestions = ClaudeAnalysisService.generateSuggestions(allStatements);
-        
-        // STEP 4: Build graph data using GraphDataService
+        // STEP 3: Build graph data and themes using GraphDataService
         System.out.println("🔗 Calculating similarities...");
-        List<Map<String, Object>> nodes = GraphDataService.buildNodes(categorized);
-        List<Map<String, Object>> edges = GraphDataService.calculateSimilarities(nodes, 0.35);
+        IncrementalSimilarityGraph.Snapshot snapshot = buildGraph(padletId, config, categorized);
+        NodeTable nodes = snapshot.nodes();
+        EdgeList edges = snapshot.edges();
         
         System.out.println("✅ Found " + edges.size() + " connections");
+        System.out.println(SimilarityCache.getShared().getStatsLine());
+        
+        List<StatementCluster> clusters = GraphClustering.findClusters(nodes, edges);
         
         // Position nodes for poster layout
-        GraphDataService.positionNodesForPoster(nodes);
+        GraphDataService.positionNodesForPoster(nodes, edges);
+        
+        String filename = "poster-" + evaluationType + "-padlet-" + java.time.LocalDate.now() + ".html";
+        Map<String, List<Statement>> board = categorized;
+        if (analysisService.isDraftPosters()) {
+            DelphiAnalysis draft = analysisService.draftDelphi(nodes, edges, clusters);
+            java.nio.file.Files.writeString(
+                java.nio.file.Paths.get(filename),
+                PosterGenerator.generateDelphiDashboard(nodes, edges, clusters, config,
+                    draft.getAnalysis(), draft.getContradictions(), draft.getSuggestions())
+            );
+            System.out.println("📝 Draft poster saved to: " + filename + " (Claude's analysis replaces it in the background)");
+            PosterJobs.submit(filename, () -> writeAnalyzedPoster(filename, board, allStatements, clusters, nodes, edges, config));
+            return filename;
+        }
+        
+        writeAnalyzedPoster(filename, board, allStatements, clusters, nodes, edges, config);
+        return filename;
+    }
+    
+    /**
+     * Claude analysis and the final poster (steps 4-6)
+     */
+    private void writeAnalyzedPoster(String filename, Map<String, List<Statement>> categorized, List<String> allStatements,
+            List<StatementCluster> clusters, NodeTable nodes, EdgeList edges, EvaluationConfig config) throws Exception {
+        // STEP 4: Analyze with Claude using ClaudeAnalysisService
+        DelphiAnalysis delphiAnalysis = analysisService.analyzeDelphi(categorized, allStatements, clusters, nodes, edges);
+        Map<String, String> analysis = delphiAnalysis.getAnalysis();
+        List<Map<String, Object>> contradictions = delphiAnalysis.getContradictions();
+        List<String> suggestions = delphiAnalysis.getSuggestions();
+        System.out.println(analysisService.getCacheStatsLine());
+        System.out.println(analysisService.getBackendStatsLine());
         
         // STEP 5: Generate poster HTML using PosterGenerator
         System.out.println("🎨 Generating dashboard poster...");
         String htmlPoster = PosterGenerator.generateDelphiDashboard(
-            nodes, edges, config, analysis, contradictions, suggestions, categorized
+            nodes, edges, clusters, config, analysis, contradictions, suggestions
         );
         System.out.println("✅ Poster generated");
         
+        LlmRunStats run = LlmRunStats.end();
+        System.out.println("📈 LLM usage: " + run.getSummaryLine());
+        htmlPoster = PosterGenerator.attachRunMetadata(htmlPoster, run);
+        
         // STEP 6: Save to file
-        String filename = "poster-" + evaluationType + "-padlet-" + java.time.LocalDate.now() + ".html";
         java.nio.file.Files.writeString(
             java.nio.file.Paths.get(filename),
             htmlPoster
         );
         
         System.out.println("💾 Saved to: " + filename);
-        return filename;
+    }
+    
+    /**
+     * Nodes and edges of the board: from the live graph for pairwise metrics
+     * Corpus dependent metrics (tfidf) reweigh every pair when posts change,
+     * so they are scored in full on each refresh; so are boards large enough
+     * for an approximate config's LSH path, which the live graph does not take.
+     */
+    private static IncrementalSimilarityGraph.Snapshot buildGraph(String padletId, EvaluationConfig config,
+                                                                  Map<String, List<Statement>> categorized) {
+        int statementCount = 0;
+        for (List<Statement> statements : categorized.values()) statementCount += statements.size();
+        if (!SimilarityMetricFactory.getMetric(config.getSimilarityMetric()).isPairwise()
+                || GraphDataService.usesLsh(config, statementCount)) {
+            NodeTable nodes = GraphDataService.buildNodes(categorized);
+            return new IncrementalSimilarityGraph.Snapshot(nodes, GraphDataService.calculateSimilarities(nodes, config));
+        }
+        return getLiveGraph(padletId, config).snapshot(categorized);
+    }
+    
+    /**
+     * Graph kept for this board between refreshes (one per board and metric settings)
+     */
+    private static IncrementalSimilarityGraph getLiveGraph(String padletId, EvaluationConfig config) {
+        String key = padletId + "|" + config.getSimilarityMetric() + "|" + config.getSimilarityThreshold()
+            + "|" + config.getMaxNeighbours();
+        return LIVE_GRAPHS.computeIfAbsent(key, k -> new IncrementalSimilarityGraph(
+            SimilarityMetricFactory.getMetric(config.getSimilarityMetric()),
+            config.getSimilarityThreshold(),
+            config.getMaxNeighbours()
+        ));
     }
     
     /**
@@ -0,0 +1,304 @@
+package io.github.tessG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Theme grouping on the similarity graph, all over primitive arrays
+ * Union-find for connected components and multi-level Louvain
+ * (modularity local moving + aggregation) for communities.
+ */
+public class GraphClustering {
+
+    private static final int MAX_LEVELS = 10;
+    private static final int MAX_PASSES = 20;
+    private static final int MIN_CLUSTER_SIZE = 2;
+    private static final int KEYWORDS_PER_CLUSTER = 3;
+    private static final int MIN_KEYWORD_LENGTH = 4;
+    private static final double MIN_GAIN = 1e-12;
+
+    /**
+     * Group statements into themes; clusters are sorted by size, singletons left out
+     */
+    public static List<StatementCluster> findClusters(NodeTable nodes, EdgeList edges) {
+        int n = nodes.size();
+        CsrGraph graph = CsrGraph.fromEdges(n, edges);
+        int[] community = detectCommunities(graph);
+
+        // Group node ids by community (counting sort keeps ids ascending)
+        int communityCount = 0;
+        for (int c : community) communityCount = Math.max(communityCount, c + 1);
+        int[] start = new int[communityCount + 1];
+        for (int c : community) start[c + 1]++;
+        for (int c = 0; c < communityCount; c++) start[c + 1] += start[c];
+        int[] members = new int[n];
+        int[] next = Arrays.copyOf(start, communityCount);
+        for (int v = 0; v < n; v++) members[next[community[v]]++] = v;
+
+        List<int[]> groups = new ArrayList<>();
+        for (int c = 0; c < communityCount; c++) {
+            if (start[c + 1] - start[c] >= MIN_CLUSTER_SIZE) {
+                groups.add(Arrays.copyOfRange(members, start[c], start[c + 1]));
+            }
+        }
+        groups.sort((a, b) -> a.length != b.length ? b.length - a.length : a[0] - b[0]);
+
+        String[] texts = new String[n];
+        for (int v = 0; v < n; v++) texts[v] = nodes.getText(v).toLowerCase();
+        List<List<String>> tokens = SparseVectors.tokenize(texts);
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        for (List<String> row : tokens) {
+            for (String token : new HashSet<>(row)) documentFrequency.merge(token, 1, Integer::sum);
+        }
+
+        List<StatementCluster> clusters = new ArrayList<>();
+        for (int[] group : groups) {
+            clusters.add(new StatementCluster(
+                clusters.size(),
+                group,
+                keywords(group, tokens, documentFrequency, n),
+                representative(group, graph, community)
+            ));
+        }
+
+        System.out.println("🧩 " + clusters.size() + " themes with " + MIN_CLUSTER_SIZE + "+ statements");
+        return clusters;
+    }
+
+    /**
+     * Connected component label per node (union-find with path halving and union by size)
+     * Labels are numbered in order of each component's lowest node id;
+     * the poster highlights the component of the statement under the pointer
+     */
+    public static int[] connectedComponents(int nodeCount, EdgeList edges) {
+        int[] parent = new int[nodeCount];
+        int[] size = new int[nodeCount];
+        for (int v = 0; v < nodeCount; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+
+        for (int e = 0; e < edges.size(); e++) {
+            int a = find(parent, edges.getSource(e));
+            int b = find(parent, edges.getTarget(e));
+            if (a == b) continue;
+            if (size[a] < size[b]) {
+                int swap = a;
+                a = b;
+                b = swap;
+            }
+            parent[b] = a;
+            size[a] += size[b];
+        }
+
+        int[] label = new int[nodeCount];
+        Arrays.fill(label, -1);
+        int[] component = new int[nodeCount];
+        int count = 0;
+        for (int v = 0; v < nodeCount; v++) {
+            int root = find(parent, v);
+            if (label[root] < 0) label[root] = count++;
+            component[v] = label[root];
+        }
+        return component;
+    }
+
+    /**
+     * Louvain community per node, numbered 0..c-1
+     * Each level moves nodes to the neighbouring community with the best
+     * modularity gain, then collapses communities into single nodes.
+     */
+    public static int[] detectCommunities(CsrGraph graph) {
+        int n = graph.getNodeCount();
+        int[] membership = new int[n];
+        for (int v = 0; v < n; v++) membership[v] = v;
+
+        CsrGraph level = graph;
+        for (int depth = 0; depth < MAX_LEVELS; depth++) {
+            int[] community = moveNodes(level);
+            int count = 0;
+            for (int c : community) count = Math.max(count, c + 1);
+            for (int v = 0; v < n; v++) membership[v] = community[membership[v]];
+
+            if (count == level.getNodeCount()) break;
+            level = aggregate(level, community, count);
+        }
+        return membership;
+    }
+
+    /**
+     * Local moving phase; returns communities renumbered by first appearance
+     */
+    private static int[] moveNodes(CsrGraph graph) {
+        int n = graph.getNodeCount();
+        int[] community = new int[n];
+        double[] degree = new double[n];
+        double[] total = new double[n];
+        double twiceWeight = 0;
+        for (int v = 0; v < n; v++) {
+            community[v] = v;
+            degree[v] = graph.getWeightedDegree(v);
+            total[v] = degree[v];
+            twiceWeight += degree[v];
+        }
+        if (twiceWeight == 0) return community;
+
+        double[] linkWeight = new double[n];
+        boolean[] linked = new boolean[n];
+        int[] touched = new int[n];
+
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            boolean moved = false;
+            for (int v = 0; v < n; v++) {
+                int count = 0;
+                for (int slot = graph.getStart(v); slot < graph.getEnd(v); slot++) {
+                    int u = graph.getNeighbour(slot);
+                    if (u == v) continue;
+                    int c = community[u];
+                    if (!linked[c]) {
+                        linked[c] = true;
+                        touched[count++] = c;
+                    }
+                    linkWeight[c] += graph.getWeight(slot);
+                }
+
+                int current = community[v];
+                total[current] -= degree[v];
+                int best = current;
+                double bestGain = linkWeight[current] - total[current] * degree[v] / twiceWeight;
+                for (int t = 0; t < count; t++) {
+                    int c = touched[t];
+                    double gain = linkWeight[c] - total[c] * degree[v] / twiceWeight;
+                    if (gain > bestGain + MIN_GAIN) {
+                        best = c;
+                        bestGain = gain;
+                    }
+                }
+                total[best] += degree[v];
+                if (best != current) {
+                    community[v] = best;
+                    moved = true;
+                }
+
+                for (int t = 0; t < count; t++) {
+                    linkWeight[touched[t]] = 0;
+                    linked[touched[t]] = false;
+                }
+            }
+            if (!moved) break;
+        }
+
+        int[] renumber = new int[n];
+        Arrays.fill(renumber, -1);
+        int next = 0;
+        for (int v = 0; v < n; v++) {
+            if (renumber[community[v]] < 0) renumber[community[v]] = next++;
+            community[v] = renumber[community[v]];
+        }
+        return community;
+    }
+
+    /**
+     * Collapse each community into one node; internal weight becomes a self loop
+     */
+    private static CsrGraph aggregate(CsrGraph graph, int[] community, int count) {
+        int n = graph.getNodeCount();
+        int[] start = new int[count + 1];
+        for (int c : community) start[c + 1]++;
+        for (int c = 0; c < count; c++) start[c + 1] += start[c];
+        int[] members = new int[n];
+        int[] fill = Arrays.copyOf(start, count);
+        for (int v = 0; v < n; v++) members[fill[community[v]]++] = v;
+
+        int[] offsets = new int[count + 1];
+        int[] neighbours = new int[graph.getEnd(n - 1)];
+        double[] weights = new double[neighbours.length];
+        double[] linkWeight = new double[count];
+        boolean[] linked = new boolean[count];
+        int[] touched = new int[count];
+        int size = 0;
+
+        for (int c = 0; c < count; c++) {
+            int touchedCount = 0;
+            for (int m = start[c]; m < start[c + 1]; m++) {
+                int v = members[m];
+                for (int slot = graph.getStart(v); slot < graph.getEnd(v); slot++) {
+                    int d = community[graph.getNeighbour(slot)];
+                    if (!linked[d]) {
+                        linked[d] = true;
+                        touched[touchedCount++] = d;
+                    }
+                    linkWeight[d] += graph.getWeight(slot);
+                }
+            }
+            Arrays.sort(touched, 0, touchedCount);
+            for (int t = 0; t < touchedCount; t++) {
+                int d = touched[t];
+                neighbours[size] = d;
+                weights[size++] = linkWeight[d];
+                linkWeight[d] = 0;
+                linked[d] = false;
+            }
+            offsets[c + 1] = size;
+        }
+        return new CsrGraph(count, offsets, Arrays.copyOf(neighbours, size), Arrays.copyOf(weights, size));
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Words that are frequent in the cluster but rare on the board (count · idf)
+     */
+    private static List<String> keywords(int[] group, List<List<String>> tokens,
+                                         Map<String, Integer> documentFrequency, int nodeCount) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int v : group) {
+            for (String token : new HashSet<>(tokens.get(v))) {
+                if (token.length() >= MIN_KEYWORD_LENGTH) counts.merge(token, 1, Integer::sum);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(counts.entrySet());
+        ranked.removeIf(entry -> entry.getValue() < 2);
+        ranked.sort((a, b) -> {
+            double scoreA = a.getValue() * Math.log((double) nodeCount / documentFrequency.get(a.getKey()));
+            double scoreB = b.getValue() * Math.log((double) nodeCount / documentFrequency.get(b.getKey()));
+            return scoreA != scoreB ? Double.compare(scoreB, scoreA) : a.getKey().compareTo(b.getKey());
+        });
+
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(KEYWORDS_PER_CLUSTER, ranked.size()); i++) {
+            result.add(ranked.get(i).getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Member with the largest edge weight to the rest of its community
+     */
+    private static int representative(int[] group, CsrGraph graph, int[] community) {
+        int best = group[0];
+        double bestWeight = -1;
+        for (int v : group) {
+            double weight = 0;
+            for (int slot = graph.getStart(v); slot < graph.getEnd(v); slot++) {
+                if (community[graph.getNeighbour(slot)] == community[v]) weight += graph.getWeight(slot);
+            }
+            if (weight > bestWeight) {
+                best = v;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+}
@@ -1,6 +1,8 @@
 package io.github.tessG;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Service for graph data processing
@@ -9,40 +11,30 @@ import java.util.*;
  */
 public class GraphDataService {
     
+    // Below this size the pair loop is faster than the fork/join overhead
+    private static final int PARALLEL_MIN_NODES = 300;
+    
+    // Extra tiles per worker so stragglers can be stolen
+    private static final int TILES_PER_THREAD = 4;
+    
+    // From this size configs that allow it score only LSH candidates (isApproximateLargeBoards)
+    private static final int LSH_MIN_NODES = 5000;
+    
+    // Rows scored in full to estimate the recall of each LSH run
+    private static final int RECALL_SAMPLE_ROWS = 64;
+    
     /**
      * Build nodes from categorized statements
      */
-    public static List<Map<String, Object>> buildNodes(Map<String, List<Statement>> categorized) {
-        List<Map<String, Object>> nodes = new ArrayList<>();
-        int id = 0;
+    public static NodeTable buildNodes(Map<String, List<Statement>> categorized) {
+        int total = 0;
+        for (List<Statement> statements : categorized.values()) total += statements.size();
+        NodeTable nodes = new NodeTable(total);
         
         for (Map.Entry<String, List<Statement>> entry : categorized.entrySet()) {
             String category = entry.getKey();
             for (Statement stmt : entry.getValue()) {
-                Map<String, Object> node = new HashMap<>();
-                node.put("id", id++);
-                node.put("category", category);
-                node.put("text", stmt.getText());
-                node.put("weight", stmt.getWeight());
-                node.put("comment", stmt.getComment());
-                
-                // Calculate box size based on text length
-                int textLen = stmt.getText().length();
-                if (textLen < 25) {
-                    node.put("width", 80);
-                    node.put("height", 45);
-                } else if (textLen < 40) {
-                    node.put("width", 90);
-                    node.put("height", 50);
-                } else if (textLen < 55) {
-                    node.put("width", 100);
-                    node.put("height", 60);
-                } else {
-                    node.put("width", 110);
-                    node.put("height", 65);
-                }
-                
-                nodes.add(node);
+                addNode(nodes, category, stmt);
             }
         }
         
@@ -50,126 +42,408 @@ public class GraphDataService {
     }
     
     /**
-     * Calculate similarity edges between nodes
+     * Append one statement as a node, sized by its text length
      */
-    public static List<Map<String, Object>> calculateSimilarities(List<Map<String, Object>> nodes, double threshold) {
-        List<Map<String, Object>> edges = new ArrayList<>();
+    public static int addNode(NodeTable nodes, String category, Statement stmt) {
+        int textLen = stmt.getText().length();
+        int width;
+        int height;
+        if (textLen < 25) {
+            width = 80;
+            height = 45;
+        } else if (textLen < 40) {
+            width = 90;
+            height = 50;
+        } else if (textLen < 55) {
+            width = 100;
+            height = 60;
+        } else {
+            width = 110;
+            height = 65;
+        }
         
-        for (int i = 0; i < nodes.size(); i++) {
-            for (int j = i + 1; j < nodes.size(); j++) {
-                String text1 = (String) nodes.get(i).get("text");
-                String text2 = (String) nodes.get(j).get("text");
-                double sim = calculateTextSimilarity(text1, text2);
-                
-                if (sim >= threshold) {
-                    Map<String, Object> edge = new HashMap<>();
-                    edge.put("source", i);
-                    edge.put("target", j);
-                    edge.put("similarity", sim);
-                    edges.add(edge);
-                }
-            }
+        int id = nodes.add(category, stmt.getText(), stmt.getWeight(), stmt.getComment(), width, height);
+        if (stmt.getCount() > 1) {
+            String[] memberTexts = new String[stmt.getCount()];
+            for (int i = 0; i < memberTexts.length; i++) memberTexts[i] = stmt.getMembers().get(i).getText();
+            nodes.setMembers(id, memberTexts);
+        }
+        return id;
+    }
+    
+    /**
+     * Calculate similarity edges between nodes
+     * Large boards are scored in parallel automatically
+     */
+    public static EdgeList calculateSimilarities(NodeTable nodes, double threshold) {
+        return calculateSimilarities(nodes, new LevenshteinMetric(), threshold);
+    }
+    
+    /**
+     * Calculate similarity edges with the metric and threshold of an evaluation type
+     * Exact scoring goes through the shared SimilarityCache; the k-NN cap is applied afterwards
+     */
+    public static EdgeList calculateSimilarities(NodeTable nodes, EvaluationConfig config) {
+        SimilarityMetric metric = SimilarityMetricFactory.getMetric(config.getSimilarityMetric());
+        double threshold = config.getSimilarityThreshold();
+        int k = config.getMaxNeighbours();
+        if (usesLsh(config, nodes.size())) {
+            return k > 0 ? calculateNearestNeighbours(nodes, metric, threshold, k, true)
+                : calculateSimilaritiesLsh(nodes, metric, threshold, false);
         }
         
-        return edges;
+        EdgeList edges = cachedSimilarities(lowercaseTexts(nodes), metric, threshold);
+        return k > 0 ? NeighbourHeaps.keepStrongest(edges, nodes.size(), k) : edges;
+    }
+    
+    /**
+     * Threshold edges of (lowercased) texts; only pairs the SimilarityCache has not seen are scored
+     */
+    public static EdgeList cachedSimilarities(String[] texts, SimilarityMetric metric, double threshold) {
+        return SimilarityCache.getShared().edges(metric, texts, threshold, known -> known == null
+            ? calculateSimilarities(texts, metric, threshold, texts.length >= PARALLEL_MIN_NODES)
+            : scoreUnknownPairs(metric.prepare(texts), known, threshold));
+    }
+    
+    /**
+     * Calculate similarity edges with the given metric, exact; parallel on large boards
+     */
+    public static EdgeList calculateSimilarities(NodeTable nodes, SimilarityMetric metric,
+                                                                 double threshold) {
+        return calculateSimilarities(nodes, metric, threshold, nodes.size() >= PARALLEL_MIN_NODES);
     }
     
     /**
-     * Position nodes for poster layout (3 categories: Keep, Stop, Start)
+     * Calculate similarity edges between nodes, optionally on the fork/join pool
+     * Both modes return the same edges in the same (source, target) order
      */
-    public static void positionNodesForPoster(List<Map<String, Object>> nodes) {
-        List<Map<String, Object>> keepDoing = new ArrayList<>();
-        List<Map<String, Object>> stopDoing = new ArrayList<>();
-        List<Map<String, Object>> startDoing = new ArrayList<>();
+    public static EdgeList calculateSimilarities(NodeTable nodes, double threshold,
+                                                                 boolean parallel) {
+        return calculateSimilarities(nodes, new LevenshteinMetric(), threshold, parallel);
+    }
+    
+    public static EdgeList calculateSimilarities(NodeTable nodes, SimilarityMetric metric,
+                                                                 double threshold, boolean parallel) {
+        return calculateSimilarities(lowercaseTexts(nodes), metric, threshold, parallel);
+    }
+    
+    private static EdgeList calculateSimilarities(String[] texts, SimilarityMetric metric,
+                                                  double threshold, boolean parallel) {
+        SimilarityMetric.Scorer scorer = metric.prepare(texts);
+        int n = texts.length;
         
-        for (Map<String, Object> node : nodes) {
-            String category = (String) node.get("category");
-            if (category.equals("Keep Doing")) keepDoing.add(node);
-            else if (category.equals("Stop Doing")) stopDoing.add(node);
-            else if (category.equals("Start Doing")) startDoing.add(node);
+        if (!parallel || n < 2) {
+            EdgeList edges = new EdgeList();
+            scoreRows(scorer, n, 0, n, threshold, edges);
+            return edges;
         }
         
-        // Keep Doing - top left
-        int keepCols = 3;
-        int keepXStart = 40;
-        int keepXSpacing = 110;
-        int keepYStart = 80;
-        int keepYSpacing = 75;
+        List<SimilarityTile> tiles = buildTiles(scorer, n, threshold, 0);
+        ForkJoinPool.commonPool().invoke(new SimilarityTileGroup(tiles));
         
-        for (int i = 0; i < keepDoing.size(); i++) {
-            Map<String, Object> node = keepDoing.get(i);
-            node.put("x", keepXStart + (i % keepCols) * keepXSpacing);
-            node.put("y", keepYStart + (i / keepCols) * keepYSpacing);
+        // Tiles cover consecutive row ranges, so merging in tile order keeps the sequential order
+        EdgeList edges = new EdgeList();
+        for (SimilarityTile tile : tiles) {
+            edges.addAll(tile.edges);
         }
+        return edges;
+    }
+    
+    /**
+     * k-NN graph: keep at most k best neighbours per node (that also reach the threshold)
+     * An edge is kept if it is in the top k of either endpoint, so there are at most n*k edges
+     */
+    public static EdgeList calculateNearestNeighbours(NodeTable nodes, SimilarityMetric metric,
+                                                      double threshold, int k) {
+        return calculateNearestNeighbours(nodes, metric, threshold, k, false);
+    }
+    
+    /**
+     * k-NN graph; with lsh only MinHash/LSH candidate pairs are offered (approximate)
+     */
+    public static EdgeList calculateNearestNeighbours(NodeTable nodes, SimilarityMetric metric,
+                                                      double threshold, int k, boolean lsh) {
+        int n = nodes.size();
+        String[] texts = lowercaseTexts(nodes);
+        SimilarityMetric.Scorer scorer = metric.prepare(texts);
         
-        // Start Doing - top right
-        int startCols = 3;
-        int startXStart = 580;
-        int startXSpacing = 110;
-        int startYStart = 80;
-        int startYSpacing = 75;
+        if (lsh) {
+            NeighbourHeaps heaps = new NeighbourHeaps(n, k);
+            for (long pair : lshCandidates(texts, metric, scorer, threshold)) {
+                offerPair(scorer, (int) (pair >>> 32), (int) pair, threshold, heaps);
+            }
+            return heaps.toEdges();
+        }
         
-        for (int i = 0; i < startDoing.size(); i++) {
-            Map<String, Object> node = startDoing.get(i);
-            node.put("x", startXStart + (i % startCols) * startXSpacing);
-            node.put("y", startYStart + (i / startCols) * startYSpacing);
+        if (n < PARALLEL_MIN_NODES) {
+            NeighbourHeaps heaps = new NeighbourHeaps(n, k);
+            scoreRows(scorer, n, 0, n, threshold, heaps);
+            return heaps.toEdges();
         }
         
-        // Stop Doing - bottom center
-        int stopCols = 3;
-        int stopXStart = 330;
-        int stopXSpacing = 110;
-        int stopYStart = 530;
-        int stopYSpacing = 75;
+        List<SimilarityTile> tiles = buildTiles(scorer, n, threshold, k);
+        ForkJoinPool.commonPool().invoke(new SimilarityTileGroup(tiles));
         
-        for (int i = 0; i < stopDoing.size(); i++) {
-            Map<String, Object> node = stopDoing.get(i);
-            node.put("x", stopXStart + (i % stopCols) * stopXSpacing);
-            node.put("y", stopYStart + (i / stopCols) * stopYSpacing);
+        // Ties are broken by node id, so merge order does not change the result
+        NeighbourHeaps heaps = new NeighbourHeaps(n, k);
+        for (SimilarityTile tile : tiles) {
+            heaps.mergeFrom(tile.heaps);
         }
+        return heaps.toEdges();
     }
     
     /**
-     * Calculate text similarity using Levenshtein distance
+     * Calculate similarity edges using only MinHash/LSH candidate pairs
+     * Approximate: pairs that never share a bucket are not scored.
+     * With measureRecall the exact path is also run and the recall is logged.
      */
-    private static double calculateTextSimilarity(String s1, String s2) {
-        s1 = s1.toLowerCase();
-        s2 = s2.toLowerCase();
+    public static EdgeList calculateSimilaritiesLsh(NodeTable nodes, double threshold,
+                                                                    boolean measureRecall) {
+        return calculateSimilaritiesLsh(nodes, new LevenshteinMetric(), threshold, measureRecall);
+    }
+    
+    public static EdgeList calculateSimilaritiesLsh(NodeTable nodes, SimilarityMetric metric,
+                                                                    double threshold, boolean measureRecall) {
+        String[] texts = lowercaseTexts(nodes);
+        SimilarityMetric.Scorer scorer = metric.prepare(texts);
+        long[] candidates = lshCandidates(texts, metric, scorer, threshold);
         
-        if (s1.equals(s2)) return 1.0;
+        EdgeList edges = new EdgeList();
+        for (long pair : candidates) {
+            int i = (int) (pair >>> 32);
+            int j = (int) pair;
+            double sim = scorer.score(i, j, threshold);
+            if (sim != SimilarityMetric.NO_MATCH) {
+                edges.add(i, j, sim);
+            }
+        }
+        
+        if (measureRecall) {
+            double recall = measureRecall(edges, calculateSimilarities(nodes, metric, threshold, true));
+            System.out.println("🔎 LSH recall vs exact: " + String.format("%.3f", recall));
+        }
         
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        return edges;
+    }
+    
+    /**
+     * Whether a board of this size is scored from LSH candidates only
+     */
+    static boolean usesLsh(EvaluationConfig config, int nodeCount) {
+        return config.isApproximateLargeBoards() && nodeCount >= LSH_MIN_NODES;
+    }
+    
+    /**
+     * LSH candidate pairs for the metric, logged with a sampled recall
+     * Warns when the board falls short of MinHashIndex.TARGET_RECALL
+     */
+    private static long[] lshCandidates(String[] texts, SimilarityMetric metric,
+                                        SimilarityMetric.Scorer scorer, double threshold) {
+        long[] candidates = MinHashIndex.forMetric(texts, metric.getName()).candidatePairs();
+        long allPairs = (long) texts.length * (texts.length - 1) / 2;
+        double recall = sampledRecall(scorer, texts.length, candidates, threshold);
+        System.out.println("🔎 LSH scores " + candidates.length + " of " + allPairs + " pairs ("
+            + String.format("%.1f%%", 100.0 * candidates.length / Math.max(1, allPairs))
+            + "), sampled recall " + String.format("%.3f", recall));
+        if (recall < MinHashIndex.TARGET_RECALL) {
+            System.err.println("⚠️ LSH recall " + String.format("%.3f", recall) + " is below the "
+                + MinHashIndex.TARGET_RECALL + " target on this board; an exact config keeps every edge");
+        }
+        return candidates;
+    }
+    
+    /**
+     * Share of exact edges whose pair is a candidate, over RECALL_SAMPLE_ROWS rows scored in full
+     * Rows are drawn with a fixed seed (a fixed stride can line up with a pattern in the board);
+     * about RECALL_SAMPLE_ROWS * n pairs, a few percent of a board at LSH sizes
+     */
+    static double sampledRecall(SimilarityMetric.Scorer scorer, int n, long[] candidates, double threshold) {
+        Random random = new Random(n);
+        boolean[] sampled = new boolean[n];
+        int edges = 0;
+        int found = 0;
+        for (int draw = 0; draw < Math.min(n, RECALL_SAMPLE_ROWS); draw++) {
+            int row = random.nextInt(n);
+            if (sampled[row]) continue;
+            sampled[row] = true;
+            for (int other = 0; other < n; other++) {
+                if (other == row) continue;
+                int i = Math.min(row, other);
+                int j = Math.max(row, other);
+                if (scorer.score(i, j, threshold) == SimilarityMetric.NO_MATCH) continue;
+                edges++;
+                if (Arrays.binarySearch(candidates, ((long) i << 32) | j) >= 0) found++;
+            }
+        }
+        return edges == 0 ? 1.0 : (double) found / edges;
+    }
+    
+    /**
+     * Fraction of the exact edges that were also found by an approximate run
+     */
+    public static double measureRecall(EdgeList approximate, EdgeList exact) {
+        if (exact.isEmpty()) return 1.0;
         
-        for (int i = 0; i <= s1.length(); i++) dp[i][0] = i;
-        for (int j = 0; j <= s2.length(); j++) dp[0][j] = j;
+        long[] found = new long[approximate.size()];
+        for (int k = 0; k < found.length; k++) {
+            found[k] = approximate.pairKey(k);
+        }
+        Arrays.sort(found);
         
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                if (s1.charAt(i-1) == s2.charAt(j-1)) {
-                    dp[i][j] = dp[i-1][j-1];
-                } else {
-                    dp[i][j] = 1 + Math.min(dp[i-1][j-1], Math.min(dp[i-1][j], dp[i][j-1]));
+        int hits = 0;
+        for (int k = 0; k < exact.size(); k++) {
+            if (Arrays.binarySearch(found, exact.pairKey(k)) >= 0) hits++;
+        }
+        return (double) hits / exact.size();
+    }
+    
+    /**
+     * Lowercase once per node instead of once per pair
+     */
+    private static String[] lowercaseTexts(NodeTable nodes) {
+        String[] texts = new String[nodes.size()];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = nodes.getText(i).toLowerCase();
+        }
+        return texts;
+    }
+    
+    /**
+     * Score all pairs (i, j) with fromRow <= i < toRow and j > i
+     */
+    private static void scoreRows(SimilarityMetric.Scorer scorer, int n, int fromRow, int toRow, double threshold,
+                                  EdgeList edges) {
+        for (int i = fromRow; i < toRow; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double sim = scorer.score(i, j, threshold);
+                
+                if (sim != SimilarityMetric.NO_MATCH) {
+                    edges.add(i, j, sim);
                 }
             }
         }
-        
-        int maxLen = Math.max(s1.length(), s2.length());
-        return 1.0 - ((double) dp[s1.length()][s2.length()] / maxLen);
     }
     
     /**
-     * Find which category a statement belongs to (for contradiction matching)
+     * Score every pair with at least one endpoint the cache did not know, in (i, j) order
      */
-    public static String findStatementCategory(String statementText, Map<String, List<Statement>> categorized) {
-        for (Map.Entry<String, List<Statement>> entry : categorized.entrySet()) {
-            for (Statement stmt : entry.getValue()) {
-                if (stmt.getText().equals(statementText) || 
-                    stmt.getText().contains(statementText) ||
-                    statementText.contains(stmt.getText())) {
-                    return entry.getKey();
+    private static EdgeList scoreUnknownPairs(SimilarityMetric.Scorer scorer, boolean[] known, double threshold) {
+        int n = known.length;
+        EdgeList edges = new EdgeList();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (known[i] && known[j]) continue;
+                double sim = scorer.score(i, j, threshold);
+                
+                if (sim != SimilarityMetric.NO_MATCH) {
+                    edges.add(i, j, sim);
                 }
             }
         }
-        return "Unknown";
+        return edges;
+    }
+    
+    /**
+     * Score all pairs of the row band into bounded neighbour heaps
+     */
+    private static void scoreRows(SimilarityMetric.Scorer scorer, int n, int fromRow, int toRow, double threshold,
+                                  NeighbourHeaps heaps) {
+        for (int i = fromRow; i < toRow; i++) {
+            for (int j = i + 1; j < n; j++) {
+                offerPair(scorer, i, j, threshold, heaps);
+            }
+        }
+    }
+    
+    private static void offerPair(SimilarityMetric.Scorer scorer, int i, int j, double threshold, NeighbourHeaps heaps) {
+        // Once both heaps are full the pair must beat the weaker root, which lets the metric exit early
+        double sim = scorer.score(i, j, heaps.admissionThreshold(i, j, threshold));
+        if (sim != SimilarityMetric.NO_MATCH) {
+            heaps.offerPair(i, j, sim);
+        }
+    }
+    
+    /**
+     * Split the upper triangle into row bands holding roughly the same number of pairs
+     * Row i owns (n - 1 - i) pairs, so early bands are short and late bands are tall
+     */
+    private static List<SimilarityTile> buildTiles(SimilarityMetric.Scorer scorer, int n, double threshold, int k) {
+        long totalPairs = (long) n * (n - 1) / 2;
+        int tileCount = Math.max(1, ForkJoinPool.getCommonPoolParallelism() * TILES_PER_THREAD);
+        long pairsPerTile = Math.max(1, (totalPairs + tileCount - 1) / tileCount);
+        
+        List<SimilarityTile> tiles = new ArrayList<>();
+        int fromRow = 0;
+        long pairs = 0;
+        for (int i = 0; i < n; i++) {
+            pairs += n - 1 - i;
+            if (pairs >= pairsPerTile || i == n - 1) {
+                tiles.add(new SimilarityTile(scorer, n, fromRow, i + 1, threshold, k));
+                fromRow = i + 1;
+                pairs = 0;
+            }
+        }
+        return tiles;
+    }
+    
+    /**
+     * One row band of the pair triangle with its own edge buffer (or neighbour heaps in k-NN mode)
+     */
+    private static class SimilarityTile extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final SimilarityMetric.Scorer scorer;
+        private final int n;
+        private final int fromRow;
+        private final int toRow;
+        private final double threshold;
+        private final EdgeList edges = new EdgeList();
+        private final NeighbourHeaps heaps;
+        
+        SimilarityTile(SimilarityMetric.Scorer scorer, int n, int fromRow, int toRow, double threshold, int k) {
+            this.scorer = scorer;
+            this.n = n;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.threshold = threshold;
+            this.heaps = k > 0 ? new NeighbourHeaps(n, k) : null;
+        }
+        
+        @Override
+        protected void compute() {
+            if (heaps != null) {
+                scoreRows(scorer, n, fromRow, toRow, threshold, heaps);
+            } else {
+                scoreRows(scorer, n, fromRow, toRow, threshold, edges);
+            }
+        }
+    }
+    
+    /**
+     * Runs all tiles and waits for them to finish
+     */
+    private static class SimilarityTileGroup extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final List<SimilarityTile> tiles;
+        
+        SimilarityTileGroup(List<SimilarityTile> tiles) {
+            this.tiles = tiles;
+        }
+        
+        @Override
+        protected void compute() {
+            invokeAll(tiles);
+        }
+    }
+    
+    /**
+     * Position nodes for poster layout with a force-directed layout
+     * Similar statements are pulled together, categories cluster around their anchor
+     */
+    public static void positionNodesForPoster(NodeTable nodes, EdgeList edges) {
+        long start = System.nanoTime();
+        new ForceDirectedLayout().layout(nodes, edges);
+        System.out.println("📐 Laid out " + nodes.size() + " nodes in " + (System.nanoTime() - start) / 1_000_000 + " ms");
     }
 }
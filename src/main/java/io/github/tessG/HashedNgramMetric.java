@@ -0,0 +1,73 @@
+package io.github.tessG;
+
+import java.util.List;
+
+/**
+ * Cosine similarity of character trigrams hashed into a fixed number of dimensions
+ * Every statement becomes a dense row of one flat float matrix, so a pair is a single
+ * fixed-length dot product that the SIMD kernel can run at full width. Signed hashing
+ * keeps collisions unbiased; scores are close to, but not identical with, "ngram".
+ * Experimental: no shipped config selects it, so the default path stays on the exact metrics.
+ */
+public class HashedNgramMetric implements SimilarityMetric {
+
+    public static final String NAME = "hashed";
+
+    private static final int N = 3;
+    private static final int DIMENSIONS = 256;
+
+    private final DotKernel kernel;
+
+    public HashedNgramMetric() {
+        this(DotKernels.get());
+    }
+
+    public HashedNgramMetric(DotKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Scorer prepare(String[] texts) {
+        float[] matrix = new float[texts.length * DIMENSIONS];
+        int row = 0;
+        for (List<String> grams : SparseVectors.charNgrams(texts, N)) {
+            int base = row * DIMENSIONS;
+            for (String gram : grams) {
+                int hash = mix(gram.hashCode());
+                matrix[base + (hash & (DIMENSIONS - 1))] += (hash & 0x100) == 0 ? 1f : -1f;
+            }
+            normalize(matrix, base);
+            row++;
+        }
+
+        return (i, j, threshold) -> {
+            double sim = Math.min(1.0, kernel.dot(matrix, i * DIMENSIONS, matrix, j * DIMENSIONS, DIMENSIONS));
+            return sim >= threshold ? sim : SimilarityMetric.NO_MATCH;
+        };
+    }
+
+    private static void normalize(float[] matrix, int base) {
+        double norm = 0;
+        for (int k = 0; k < DIMENSIONS; k++) norm += (double) matrix[base + k] * matrix[base + k];
+        if (norm == 0) return;
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int k = 0; k < DIMENSIONS; k++) matrix[base + k] *= scale;
+    }
+
+    /**
+     * Murmur3 finalizer, spreads String.hashCode over the low bits
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,311 @@
+package io.github.tessG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Similarity graph that is kept between refreshes of a live board
+ * Statements are keyed by a stable content hash. Adding k posts scores only
+ * the k new statements against the existing ones (O(k·n)); removing posts
+ * drops their incident edges. Only for pairwise metrics (levenshtein,
+ * jaccard, ngram, hashed): a tfidf score depends on the whole board.
+ * All edges above the threshold are kept, since a removal can promote a
+ * weaker neighbour; the k-NN cap is applied when the edges are read.
+ */
+public class IncrementalSimilarityGraph {
+
+    private final SimilarityMetric metric;
+    private final double threshold;
+    private final int maxNeighbours;
+
+    // Slot storage: removed statements leave a null slot until compaction
+    private final List<Statement> statements = new ArrayList<>();
+    private final List<String> categories = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final Map<Long, Integer> slotByKey = new HashMap<>();
+    private int liveCount;
+
+    // Edges between slots, kept in (target, source) order since new slots always come last
+    private int edgeCount;
+    private int[] edgeSource = new int[64];
+    private int[] edgeTarget = new int[64];
+    private float[] edgeSimilarity = new float[64];
+
+    public IncrementalSimilarityGraph(SimilarityMetric metric, double threshold) {
+        this(metric, threshold, 0);
+    }
+
+    /**
+     * @param maxNeighbours k-NN cap on the edges returned (0 = all edges above threshold)
+     */
+    public IncrementalSimilarityGraph(SimilarityMetric metric, double threshold, int maxNeighbours) {
+        if (!metric.isPairwise()) {
+            throw new IllegalArgumentException("Incremental graph needs a pairwise metric, got " + metric.getName());
+        }
+        this.metric = metric;
+        this.threshold = threshold;
+        this.maxNeighbours = maxNeighbours;
+    }
+
+    /**
+     * Nodes and edges taken under one lock, so edge ids always refer to these nodes
+     */
+    public record Snapshot(NodeTable nodes, EdgeList edges) {
+    }
+
+    /**
+     * Update to the current board content and snapshot it, atomically
+     * Concurrent refreshes of the same board share this graph; taking update,
+     * nodes and edges separately could mix two board states.
+     */
+    public synchronized Snapshot snapshot(Map<String, List<Statement>> categorized) {
+        update(categorized);
+        return new Snapshot(getNodes(), getEdges());
+    }
+
+    /**
+     * Bring the graph in line with the current board content
+     * New statements are scored, missing ones removed, votes/comments refreshed
+     */
+    public synchronized void update(Map<String, List<Statement>> categorized) {
+        Set<Long> current = new HashSet<>();
+        List<Statement> added = new ArrayList<>();
+        List<String> addedCategories = new ArrayList<>();
+
+        for (Map.Entry<String, List<Statement>> entry : categorized.entrySet()) {
+            for (Statement stmt : entry.getValue()) {
+                long key = contentHash(entry.getKey(), stmt.getText());
+                if (!current.add(key)) continue;
+
+                Integer slot = slotByKey.get(key);
+                if (slot != null) {
+                    statements.set(slot, stmt);
+                } else {
+                    added.add(stmt);
+                    addedCategories.add(entry.getKey());
+                }
+            }
+        }
+
+        List<Long> removed = new ArrayList<>();
+        for (Long key : slotByKey.keySet()) {
+            if (!current.contains(key)) removed.add(key);
+        }
+
+        remove(removed);
+        add(addedCategories, added);
+
+        System.out.println("♻️ Incremental graph: +" + added.size() + " / -" + removed.size()
+                + " statements, " + liveCount + " nodes, " + edgeCount + " edges");
+    }
+
+    /**
+     * Add statements and score them against everything already in the graph
+     */
+    public synchronized void add(List<String> newCategories, List<Statement> newStatements) {
+        int firstNew = statements.size();
+        for (int k = 0; k < newStatements.size(); k++) {
+            Statement stmt = newStatements.get(k);
+            long key = contentHash(newCategories.get(k), stmt.getText());
+            if (slotByKey.containsKey(key)) continue;
+
+            slotByKey.put(key, statements.size());
+            statements.add(stmt);
+            categories.add(newCategories.get(k));
+            texts.add(stmt.getText().toLowerCase());
+            liveCount++;
+        }
+        if (firstNew == statements.size()) return;
+
+        // Dead slots get an empty text; they are never scored
+        String[] slotTexts = new String[texts.size()];
+        for (int slot = 0; slot < slotTexts.length; slot++) {
+            slotTexts[slot] = texts.get(slot) == null ? "" : texts.get(slot);
+        }
+        if (firstNew == 0) {
+            // Fresh graph (first refresh, or after a restart): the similarity cache supplies what it has seen
+            addSortedEdges(GraphDataService.cachedSimilarities(slotTexts, metric, threshold));
+            return;
+        }
+        SimilarityMetric.Scorer scorer = metric.prepare(slotTexts);
+
+        for (int target = firstNew; target < slotTexts.length; target++) {
+            for (int source = 0; source < target; source++) {
+                if (statements.get(source) == null) continue;
+                double sim = scorer.score(source, target, threshold);
+                if (sim != SimilarityMetric.NO_MATCH) addEdge(source, target, sim);
+            }
+        }
+    }
+
+    /**
+     * Remove statements by content hash and drop their incident edges
+     */
+    public synchronized void remove(List<Long> keys) {
+        if (keys.isEmpty()) return;
+
+        boolean[] dead = new boolean[statements.size()];
+        for (Long key : keys) {
+            Integer slot = slotByKey.remove(key);
+            if (slot == null) continue;
+            dead[slot] = true;
+            statements.set(slot, null);
+            categories.set(slot, null);
+            texts.set(slot, null);
+            liveCount--;
+        }
+
+        int kept = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            if (dead[edgeSource[e]] || dead[edgeTarget[e]]) continue;
+            edgeSource[kept] = edgeSource[e];
+            edgeTarget[kept] = edgeTarget[e];
+            edgeSimilarity[kept] = edgeSimilarity[e];
+            kept++;
+        }
+        edgeCount = kept;
+
+        if (statements.size() > 2 * liveCount + 16) compact();
+    }
+
+    /**
+     * Snapshot of the live statements as graph nodes
+     */
+    public synchronized NodeTable getNodes() {
+        NodeTable nodes = new NodeTable(liveCount);
+        for (int slot = 0; slot < statements.size(); slot++) {
+            if (statements.get(slot) != null) {
+                GraphDataService.addNode(nodes, categories.get(slot), statements.get(slot));
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Snapshot of the edges using the node ids of getNodes(), sorted by (source, target)
+     * With a k-NN cap, only each node's k strongest edges are kept, as in
+     * GraphDataService.calculateNearestNeighbours.
+     */
+    public synchronized EdgeList getEdges() {
+        EdgeList edges = allEdges();
+        return maxNeighbours > 0 ? NeighbourHeaps.keepStrongest(edges, liveCount, maxNeighbours) : edges;
+    }
+
+    /**
+     * Every stored edge in node ids; stored in (target, source) order, so a stable counting sort by source suffices
+     */
+    private EdgeList allEdges() {
+        int[] nodeId = liveNodeIds();
+        int[] start = new int[liveCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            start[nodeId[edgeSource[e]] + 1]++;
+        }
+        for (int id = 0; id < liveCount; id++) {
+            start[id + 1] += start[id];
+        }
+
+        int[] order = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            order[start[nodeId[edgeSource[e]]]++] = e;
+        }
+
+        EdgeList edges = new EdgeList(edgeCount);
+        for (int e : order) {
+            edges.add(nodeId[edgeSource[e]], nodeId[edgeTarget[e]], edgeSimilarity[e]);
+        }
+        return edges;
+    }
+
+    public synchronized int size() {
+        return liveCount;
+    }
+
+    /**
+     * Stable key for a statement: FNV-1a over category and normalized text
+     * Votes and comments are not part of the key, so they can change in place
+     */
+    public static long contentHash(String category, String text) {
+        long hash = 0xcbf29ce484222325L;
+        String normalized = category + '\u0000' + text.trim().replaceAll("\\s+", " ").toLowerCase();
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private int[] liveNodeIds() {
+        int[] nodeId = new int[statements.size()];
+        int next = 0;
+        for (int slot = 0; slot < nodeId.length; slot++) {
+            nodeId[slot] = statements.get(slot) != null ? next++ : -1;
+        }
+        return nodeId;
+    }
+
+    /**
+     * Store edges sorted by (source, target) in the (target, source) order used here
+     */
+    private void addSortedEdges(EdgeList edges) {
+        int[] start = new int[statements.size() + 1];
+        for (int e = 0; e < edges.size(); e++) {
+            start[edges.getTarget(e) + 1]++;
+        }
+        for (int slot = 0; slot < statements.size(); slot++) {
+            start[slot + 1] += start[slot];
+        }
+        int[] order = new int[edges.size()];
+        for (int e = 0; e < edges.size(); e++) {
+            order[start[edges.getTarget(e)]++] = e;
+        }
+        for (int e : order) {
+            addEdge(edges.getSource(e), edges.getTarget(e), edges.getSimilarity(e));
+        }
+    }
+
+    private void addEdge(int source, int target, double similarity) {
+        if (edgeCount == edgeSource.length) {
+            int capacity = edgeCount * 2;
+            edgeSource = Arrays.copyOf(edgeSource, capacity);
+            edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+            edgeSimilarity = Arrays.copyOf(edgeSimilarity, capacity);
+        }
+        edgeSource[edgeCount] = source;
+        edgeTarget[edgeCount] = target;
+        edgeSimilarity[edgeCount] = (float) similarity;
+        edgeCount++;
+    }
+
+    /**
+     * Drop dead slots and renumber edges once most of the storage is garbage
+     */
+    private void compact() {
+        int[] nodeId = liveNodeIds();
+        for (int e = 0; e < edgeCount; e++) {
+            edgeSource[e] = nodeId[edgeSource[e]];
+            edgeTarget[e] = nodeId[edgeTarget[e]];
+        }
+
+        int kept = 0;
+        for (int slot = 0; slot < statements.size(); slot++) {
+            if (statements.get(slot) == null) continue;
+            statements.set(kept, statements.get(slot));
+            categories.set(kept, categories.get(slot));
+            texts.set(kept, texts.get(slot));
+            kept++;
+        }
+        statements.subList(kept, statements.size()).clear();
+        categories.subList(kept, categories.size()).clear();
+        texts.subList(kept, texts.size()).clear();
+
+        slotByKey.clear();
+        for (int slot = 0; slot < statements.size(); slot++) {
+            slotByKey.put(contentHash(categories.get(slot), statements.get(slot).getText()), slot);
+        }
+    }
+}
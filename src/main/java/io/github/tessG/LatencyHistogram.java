@@ -0,0 +1,49 @@
+package io.github.tessG;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket histogram of durations in milliseconds (Prometheus style, cumulative on export)
+ */
+public class LatencyHistogram {
+
+    static final long[] BUCKETS_MS = {100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000, 120_000};
+
+    // One slot per bucket plus the +Inf overflow
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS_MS.length + 1);
+    private final AtomicLong sum = new AtomicLong();
+
+    public void record(long ms) {
+        int slot = 0;
+        while (slot < BUCKETS_MS.length && ms > BUCKETS_MS[slot]) slot++;
+        counts.incrementAndGet(slot);
+        sum.addAndGet(ms);
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) total += counts.get(i);
+        return total;
+    }
+
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * _bucket, _sum and _count lines for one labelled series
+     */
+    public void appendPrometheus(StringBuilder out, String name, String labels) {
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS_MS.length; i++) {
+            cumulative += counts.get(i);
+            out.append(name).append("_bucket{").append(labels).append(",le=\"").append(BUCKETS_MS[i])
+               .append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += counts.get(BUCKETS_MS.length);
+        out.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(cumulative).append('\n');
+        out.append(name).append("_sum{").append(labels).append("} ").append(sum.get()).append('\n');
+        out.append(name).append("_count{").append(labels).append("} ").append(cumulative).append('\n');
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.tessG;
+
+/**
+ * Normalized Levenshtein similarity (the original graph metric)
+ */
+public class LevenshteinMetric implements SimilarityMetric {
+
+    public static final String NAME = "levenshtein";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Scorer prepare(String[] texts) {
+        return (i, j, threshold) -> EditDistanceEngine.similarityAtLeast(texts[i], texts[j], threshold);
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.tessG;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide counters and latency histograms for every LLM call
+ * One series per (call kind, model); each call also lands in the current
+ * LlmRunStats, if a workflow started one. Served as text on /metrics.
+ */
+@Component
+public class LlmMetrics {
+
+    public enum Outcome { API, CACHE, ERROR, BATCH }
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    /**
+     * One finished call; response is null for errors
+     */
+    public void record(AnalysisRequest.Kind kind, String model, Outcome outcome,
+                       AnalysisResponse response, long wallMs) {
+        Series s = series.computeIfAbsent(kind.name().toLowerCase() + "|" + model,
+                key -> new Series(kind.name().toLowerCase(), model));
+        s.calls[outcome.ordinal()].incrementAndGet();
+        if (outcome == Outcome.API || outcome == Outcome.BATCH) {
+            s.inputTokens.addAndGet(response.getInputTokens());
+            s.outputTokens.addAndGet(response.getOutputTokens());
+            s.cacheReadTokens.addAndGet(response.getCacheReadTokens());
+            s.cacheWriteTokens.addAndGet(response.getCacheWriteTokens());
+            if (response.getCacheReadTokens() > 0) s.promptCacheReadCalls.incrementAndGet();
+        }
+        // A batch answer was already waiting: no latency to record
+        if (outcome == Outcome.API) s.firstByte.record(response.getFirstByteMs());
+        if (outcome == Outcome.API || outcome == Outcome.ERROR) s.wall.record(wallMs);
+
+        LlmRunStats run = LlmRunStats.current();
+        if (run != null) run.record(kind, outcome, response, wallMs);
+    }
+
+    /**
+     * Prometheus text exposition format
+     */
+    public String render() {
+        Map<String, Series> sorted = new TreeMap<>(series);
+        StringBuilder out = new StringBuilder();
+
+        out.append("# HELP hivemind_llm_calls_total LLM calls by outcome (api, cache = response cache hit, error, batch = answered from a Message Batch)\n");
+        out.append("# TYPE hivemind_llm_calls_total counter\n");
+        for (Series s : sorted.values()) {
+            for (Outcome outcome : Outcome.values()) {
+                out.append("hivemind_llm_calls_total{").append(s.labels()).append(",outcome=\"")
+                   .append(outcome.name().toLowerCase()).append("\"} ").append(s.calls[outcome.ordinal()].get()).append('\n');
+            }
+        }
+
+        out.append("# HELP hivemind_llm_tokens_total Tokens from the API usage blocks\n");
+        out.append("# TYPE hivemind_llm_tokens_total counter\n");
+        for (Series s : sorted.values()) {
+            appendTokens(out, s, "input", s.inputTokens);
+            appendTokens(out, s, "output", s.outputTokens);
+            appendTokens(out, s, "cache_read", s.cacheReadTokens);
+            appendTokens(out, s, "cache_write", s.cacheWriteTokens);
+        }
+
+        out.append("# HELP hivemind_llm_prompt_cache_read_calls_total API calls that read a cached prompt prefix\n");
+        out.append("# TYPE hivemind_llm_prompt_cache_read_calls_total counter\n");
+        for (Series s : sorted.values()) {
+            out.append("hivemind_llm_prompt_cache_read_calls_total{").append(s.labels()).append("} ")
+               .append(s.promptCacheReadCalls.get()).append('\n');
+        }
+
+        out.append("# HELP hivemind_llm_duration_ms Wall time per API call, including retries\n");
+        out.append("# TYPE hivemind_llm_duration_ms histogram\n");
+        for (Series s : sorted.values()) s.wall.appendPrometheus(out, "hivemind_llm_duration_ms", s.labels());
+
+        out.append("# HELP hivemind_llm_first_byte_ms Time to the first streamed event of the successful attempt\n");
+        out.append("# TYPE hivemind_llm_first_byte_ms histogram\n");
+        for (Series s : sorted.values()) s.firstByte.appendPrometheus(out, "hivemind_llm_first_byte_ms", s.labels());
+
+        return out.toString();
+    }
+
+    private static void appendTokens(StringBuilder out, Series s, String type, AtomicLong value) {
+        out.append("hivemind_llm_tokens_total{").append(s.labels()).append(",type=\"").append(type)
+           .append("\"} ").append(value.get()).append('\n');
+    }
+
+    private static class Series {
+        final String kind;
+        final String model;
+        final AtomicLong[] calls = {new AtomicLong(), new AtomicLong(), new AtomicLong(), new AtomicLong()};
+        final AtomicLong inputTokens = new AtomicLong();
+        final AtomicLong outputTokens = new AtomicLong();
+        final AtomicLong cacheReadTokens = new AtomicLong();
+        final AtomicLong cacheWriteTokens = new AtomicLong();
+        final AtomicLong promptCacheReadCalls = new AtomicLong();
+        final LatencyHistogram wall = new LatencyHistogram();
+        final LatencyHistogram firstByte = new LatencyHistogram();
+
+        Series(String kind, String model) {
+            this.kind = kind;
+            this.model = model;
+        }
+
+        String labels() {
+            return "kind=\"" + kind + "\",model=\"" + model + "\"";
+        }
+    }
+}
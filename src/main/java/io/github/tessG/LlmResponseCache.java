@@ -0,0 +1,260 @@
+package io.github.tessG;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of Claude responses
+ * Key: SHA-256 of (model, max tokens, prompt). Tier 1: in-memory LRU with a
+ * size cap. Tier 2: append-only JSONL file, replayed at startup (later lines
+ * win) and rewritten when it holds mostly stale lines. Entries expire after the TTL.
+ */
+@Component
+public class LlmResponseCache {
+
+    private static final Gson GSON = new Gson();
+
+    @Value("${hivemind.llm-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hivemind.llm-cache.file:llm-cache.jsonl}")
+    private String file;
+
+    @Value("${hivemind.llm-cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${hivemind.llm-cache.ttl-hours:168}")
+    private long ttlHours;
+
+    private final Map<String, Entry> memory = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() <= maxEntries) return false;
+            evictions.incrementAndGet();
+            return true;
+        }
+    };
+
+    private Path path;
+    private BufferedWriter writer;
+    private int diskLines;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    /**
+     * Replay the disk tier and open it for appending
+     */
+    @PostConstruct
+    public synchronized void load() {
+        if (!enabled) {
+            System.out.println("💾 LLM response cache disabled");
+            return;
+        }
+        path = Paths.get(file);
+        long now = System.currentTimeMillis();
+        int corrupt = 0;
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    diskLines++;
+                    Entry entry = parse(line);
+                    if (entry == null) {
+                        corrupt++;
+                    } else if (!isExpired(entry, now)) {
+                        memory.put(entry.key, entry);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("⚠️ Could not read LLM cache file: " + e.getMessage());
+            }
+        }
+        // Replaying is not an eviction
+        evictions.set(0);
+
+        // A torn last line would swallow the next append, so rewrite the file first
+        if (corrupt > 0 || diskLines > 2 * memory.size() + 100) compact();
+        openWriter();
+        System.out.println("💾 LLM response cache: " + memory.size() + " entries from " + path.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        try {
+            if (writer != null) writer.close();
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not close LLM cache file: " + e.getMessage());
+        }
+        writer = null;
+    }
+
+    /**
+     * Stable content address for a request
+     */
+    public static String key(String model, long maxTokens, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Long.toString(maxTokens).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Cached response, or null on a miss
+     */
+    public synchronized String get(String key) {
+        if (!enabled) return null;
+        Entry entry = memory.get(key);
+        if (entry != null && isExpired(entry, System.currentTimeMillis())) {
+            memory.remove(key);
+            expired.incrementAndGet();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.response;
+    }
+
+    public synchronized void put(String key, String response) {
+        if (!enabled) return;
+        Entry entry = new Entry(key, System.currentTimeMillis(), response);
+        memory.put(key, entry);
+        append(entry);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    public synchronized int size() {
+        return memory.size();
+    }
+
+    public String getStatsLine() {
+        return "💾 LLM cache: " + hits.get() + " hits, " + misses.get() + " misses, hit rate "
+                + String.format("%.1f%%", getHitRate() * 100) + ", " + size() + " entries, "
+                + evictions.get() + " evicted, " + expired.get() + " expired";
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAt > ttlHours * 3_600_000L;
+    }
+
+    private void append(Entry entry) {
+        if (writer == null) return;
+        try {
+            writer.write(format(entry));
+            writer.newLine();
+            writer.flush();
+            diskLines++;
+            if (diskLines > 2 * memory.size() + 100) {
+                writer.close();
+                compact();
+                openWriter();
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not write LLM cache file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrite the file with only the live entries (temp file + atomic move)
+     */
+    private void compact() {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            // Iterating an access-ordered map does not reorder it
+            for (Entry entry : memory.values()) {
+                out.write(format(entry));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not compact LLM cache file: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            diskLines = memory.size();
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not replace LLM cache file: " + e.getMessage());
+        }
+    }
+
+    private void openWriter() {
+        try {
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("⚠️ LLM cache running in memory only: " + e.getMessage());
+            writer = null;
+        }
+    }
+
+    private static String format(Entry entry) {
+        JsonObject json = new JsonObject();
+        json.addProperty("key", entry.key);
+        json.addProperty("createdAt", entry.createdAt);
+        json.addProperty("response", entry.response);
+        return GSON.toJson(json);
+    }
+
+    /**
+     * One JSONL line, or null if it is truncated or corrupt
+     */
+    private static Entry parse(String line) {
+        try {
+            JsonObject json = GSON.fromJson(line, JsonObject.class);
+            if (json == null || !json.has("key") || !json.has("createdAt") || !json.has("response")) return null;
+            return new Entry(json.get("key").getAsString(), json.get("createdAt").getAsLong(),
+                    json.get("response").getAsString());
+        } catch (JsonParseException | IllegalStateException | UnsupportedOperationException
+                 | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record Entry(String key, long createdAt, String response) {
+    }
+}
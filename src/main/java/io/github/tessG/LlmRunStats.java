@@ -0,0 +1,99 @@
+package io.github.tessG;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * LLM cost and timing for one poster run
+ * A workflow calls begin() on its request thread; ClaudeAnalysisService
+ * carries the run over to the chunk pool, so every call of the run is counted.
+ */
+public class LlmRunStats {
+
+    private static final ThreadLocal<LlmRunStats> CURRENT = new ThreadLocal<>();
+
+    private final Map<AnalysisRequest.Kind, long[]> byKind = new EnumMap<>(AnalysisRequest.Kind.class);
+    private final long startedAt = System.currentTimeMillis();
+
+    // Slots in the per-kind arrays
+    private static final int CALLS = 0, CACHED = 1, ERRORS = 2, INPUT = 3, OUTPUT = 4,
+            CACHE_READ = 5, CACHE_WRITE = 6, WALL_MS = 7, MAX_FIRST_BYTE_MS = 8, BATCHED = 9, SLOTS = 10;
+
+    /**
+     * Start a run on this thread (replaces any run left over on a pooled thread)
+     */
+    public static LlmRunStats begin() {
+        LlmRunStats run = new LlmRunStats();
+        CURRENT.set(run);
+        return run;
+    }
+
+    /**
+     * Detach the run from this thread and return it
+     */
+    public static LlmRunStats end() {
+        LlmRunStats run = CURRENT.get();
+        CURRENT.remove();
+        return run;
+    }
+
+    public static LlmRunStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Make a run current on a worker thread (null detaches)
+     */
+    static void attach(LlmRunStats run) {
+        if (run == null) CURRENT.remove();
+        else CURRENT.set(run);
+    }
+
+    synchronized void record(AnalysisRequest.Kind kind, LlmMetrics.Outcome outcome,
+                             AnalysisResponse response, long wallMs) {
+        long[] slots = byKind.computeIfAbsent(kind, k -> new long[SLOTS]);
+        slots[CALLS]++;
+        if (outcome == LlmMetrics.Outcome.CACHE) slots[CACHED]++;
+        if (outcome == LlmMetrics.Outcome.ERROR) slots[ERRORS]++;
+        if (outcome == LlmMetrics.Outcome.BATCH) slots[BATCHED]++;
+        if (outcome == LlmMetrics.Outcome.API || outcome == LlmMetrics.Outcome.BATCH) {
+            slots[INPUT] += response.getInputTokens();
+            slots[OUTPUT] += response.getOutputTokens();
+            slots[CACHE_READ] += response.getCacheReadTokens();
+            slots[CACHE_WRITE] += response.getCacheWriteTokens();
+        }
+        if (outcome == LlmMetrics.Outcome.API) {
+            slots[MAX_FIRST_BYTE_MS] = Math.max(slots[MAX_FIRST_BYTE_MS], response.getFirstByteMs());
+        }
+        slots[WALL_MS] += wallMs;
+    }
+
+    public synchronized String getSummaryLine() {
+        long[] total = new long[SLOTS];
+        for (long[] slots : byKind.values()) {
+            for (int i = 0; i < SLOTS; i++) {
+                total[i] = i == MAX_FIRST_BYTE_MS ? Math.max(total[i], slots[i]) : total[i] + slots[i];
+            }
+        }
+        return format(total) + ", run " + (System.currentTimeMillis() - startedAt) + " ms";
+    }
+
+    /**
+     * One line per call kind, for the poster metadata
+     */
+    public synchronized String getDetailLines() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<AnalysisRequest.Kind, long[]> entry : byKind.entrySet()) {
+            out.append(entry.getKey().name().toLowerCase()).append(": ").append(format(entry.getValue())).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static String format(long[] slots) {
+        return slots[CALLS] + " calls (" + slots[CACHED] + " cached, " + slots[BATCHED] + " batched, "
+                + slots[ERRORS] + " failed), "
+                + slots[INPUT] + " in / " + slots[OUTPUT] + " out tokens, "
+                + slots[CACHE_READ] + " cache read / " + slots[CACHE_WRITE] + " cache write, "
+                + slots[WALL_MS] + " ms in calls, slowest first byte " + slots[MAX_FIRST_BYTE_MS] + " ms";
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.tessG;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for the Message Batches API
+ * Each batch is worked off on its own daemon thread through an ordinary
+ * AnalysisBackend (the stub, normally), one request at a time. Batches live
+ * in memory only, so after a restart they are MISSING, like an expired batch.
+ */
+public class LocalBatchEndpoint implements BatchEndpoint {
+
+    public static final String NAME = "local";
+
+    private static final AtomicInteger BATCH_COUNTER = new AtomicInteger();
+
+    private final AnalysisBackend backend;
+    private final Map<String, LocalBatch> batches = new ConcurrentHashMap<>();
+
+    public LocalBatchEndpoint(AnalysisBackend backend) {
+        this.backend = backend;
+    }
+
+    @Override
+    public String getName() {
+        return NAME + " (" + backend.getName() + ")";
+    }
+
+    @Override
+    public String submit(Map<String, AnalysisRequest> requests) {
+        String batchId = "localbatch_" + System.currentTimeMillis() + "_" + BATCH_COUNTER.incrementAndGet();
+        LocalBatch batch = new LocalBatch(new LinkedHashMap<>(requests));
+        batches.put(batchId, batch);
+
+        Thread worker = new Thread(() -> batch.run(backend), "local-batch");
+        worker.setDaemon(true);
+        worker.start();
+        return batchId;
+    }
+
+    @Override
+    public Status poll(String batchId) {
+        LocalBatch batch = batches.get(batchId);
+        if (batch == null) return Status.MISSING;
+        return batch.ended ? Status.ENDED : Status.IN_PROGRESS;
+    }
+
+    @Override
+    public Map<String, AnalysisResponse> results(String batchId) {
+        LocalBatch batch = batches.get(batchId);
+        if (batch == null || !batch.ended) {
+            throw new IllegalStateException("Batch " + batchId + " has not ended");
+        }
+        return new LinkedHashMap<>(batch.results);
+    }
+
+    @Override
+    public long getPollIntervalMs() {
+        return 500;
+    }
+
+    private static class LocalBatch {
+        final Map<String, AnalysisRequest> requests;
+        final Map<String, AnalysisResponse> results = new ConcurrentHashMap<>();
+        volatile boolean ended;
+
+        LocalBatch(Map<String, AnalysisRequest> requests) {
+            this.requests = requests;
+        }
+
+        void run(AnalysisBackend backend) {
+            try {
+                for (Map.Entry<String, AnalysisRequest> entry : requests.entrySet()) {
+                    try {
+                        results.put(entry.getKey(), backend.complete(entry.getValue()));
+                    } catch (RuntimeException e) {
+                        // An errored request is left out, as in the real API
+                        System.err.println("⚠️ Local batch request " + entry.getKey() + " failed: " + e.getMessage());
+                    }
+                }
+            } finally {
+                ended = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.tessG;
+
+import java.util.Arrays;
+
+/**
+ * MinHash/LSH blocking index over character shingles
+ * Statements that share at least one LSH band bucket become candidate pairs,
+ * so only those pairs need to be scored with the similarity metric.
+ * Approximate, so the graph uses it only for configs that opt in
+ * (EvaluationConfig.isApproximateLargeBoards, e.g. "delphi-cohort").
+ */
+public class MinHashIndex {
+
+    // Share of the exact edges that must become candidates; forMetric() settings reach it
+    // on synthetic 3000-post boards built from data/, and GraphDataService logs a sampled
+    // recall on every LSH run so a board that falls short is visible
+    public static final double TARGET_RECALL = 0.95;
+
+    // {bands, rows, shingle}, the fewest scored pairs that reach TARGET_RECALL:
+    // levenshtein at 0.35: 95.6% recall, 31% of pairs scored (96 bands: 94.1%)
+    private static final int[] EDIT_DISTANCE_SETTING = {128, 2, 3};
+    // ngram cosine at 0.3 only gets there with single-row bands: 98.6% recall, 69% scored
+    // (56 bands: 94.0%); at so low a threshold most pairs are near enough to be candidates
+    private static final int[] NGRAM_SETTING = {64, 1, 3};
+
+    private final int bands;
+    private final int rows;
+    private final int shingle;
+    private final int size;
+    private final int[] signatures;
+    private final int[] seeds;
+
+    /**
+     * Index with the setting tuned for this metric; untuned metrics get the ngram
+     * setting, which offers the most candidates
+     */
+    public static MinHashIndex forMetric(String[] texts, String metric) {
+        int[] setting = LevenshteinMetric.NAME.equals(metric) ? EDIT_DISTANCE_SETTING : NGRAM_SETTING;
+        return new MinHashIndex(texts, setting[0], setting[1], setting[2]);
+    }
+
+    public MinHashIndex(String[] texts, int bands, int rows, int shingle) {
+        this.bands = bands;
+        this.rows = rows;
+        this.shingle = shingle;
+        this.size = texts.length;
+
+        int hashes = bands * rows;
+        this.seeds = new int[hashes];
+        for (int k = 0; k < hashes; k++) {
+            seeds[k] = mix(0x9E3779B9 * (k + 1));
+        }
+
+        this.signatures = new int[size * hashes];
+        for (int i = 0; i < size; i++) {
+            computeSignature(texts[i], i * hashes);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * All candidate pairs as (i << 32 | j) with i < j, sorted ascending and de-duplicated
+     * Pairs are de-duplicated as they are found, so memory grows with distinct pairs only
+     * The order matches the exact nested loop, so edges come out in the same order
+     */
+    public long[] candidatePairs() {
+        int hashes = bands * rows;
+        long[] bucketed = new long[size];
+        PairBuffer pairs = new PairBuffer();
+
+        for (int b = 0; b < bands; b++) {
+            for (int i = 0; i < size; i++) {
+                int h = 0x811C9DC5;
+                int base = i * hashes + b * rows;
+                for (int r = 0; r < rows; r++) {
+                    h = (h ^ signatures[base + r]) * 0x01000193;
+                }
+                bucketed[i] = ((long) mix(h + b) << 32) | i;
+            }
+            Arrays.sort(bucketed);
+
+            // Runs with the same upper 32 bits share a bucket
+            int start = 0;
+            for (int k = 1; k <= size; k++) {
+                if (k == size || (bucketed[k] >>> 32) != (bucketed[start] >>> 32)) {
+                    for (int x = start; x < k; x++) {
+                        for (int y = x + 1; y < k; y++) {
+                            // Bucket members are sorted by index within the run
+                            pairs.add(((bucketed[x] & 0xFFFFFFFFL) << 32) | (bucketed[y] & 0xFFFFFFFFL));
+                        }
+                    }
+                    start = k;
+                }
+            }
+        }
+
+        return pairs.sorted();
+    }
+
+    private void computeSignature(String text, int offset) {
+        int hashes = bands * rows;
+        Arrays.fill(signatures, offset, offset + hashes, Integer.MAX_VALUE);
+
+        if (text.length() <= shingle) {
+            updateSignature(shingleHash(text, 0, text.length()), offset);
+            return;
+        }
+        for (int start = 0; start + shingle <= text.length(); start++) {
+            updateSignature(shingleHash(text, start, start + shingle), offset);
+        }
+    }
+
+    private void updateSignature(int shingleHash, int offset) {
+        for (int k = 0; k < seeds.length; k++) {
+            int h = mix(shingleHash ^ seeds[k]);
+            if (h < signatures[offset + k]) signatures[offset + k] = h;
+        }
+    }
+
+    private static int shingleHash(String text, int from, int to) {
+        int h = 0x811C9DC5;
+        for (int i = from; i < to; i++) {
+            h = (h ^ text.charAt(i)) * 0x01000193;
+        }
+        return h;
+    }
+
+    // murmur3 finalizer
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Open-addressing set of packed pairs
+     * 0 marks an empty slot; a packed pair is never 0 because j > i >= 0.
+     */
+    private static final class PairBuffer {
+        private long[] table = new long[1024];
+        private int count;
+
+        void add(long pair) {
+            if (2 * (count + 1) > table.length) grow();
+            if (insert(table, pair)) count++;
+        }
+
+        long[] sorted() {
+            long[] pairs = new long[count];
+            int n = 0;
+            for (long pair : table) {
+                if (pair != 0L) pairs[n++] = pair;
+            }
+            Arrays.sort(pairs);
+            return pairs;
+        }
+
+        private void grow() {
+            long[] bigger = new long[table.length * 2];
+            for (long pair : table) {
+                if (pair != 0L) insert(bigger, pair);
+            }
+            table = bigger;
+        }
+
+        private static boolean insert(long[] table, long pair) {
+            int mask = table.length - 1;
+            int slot = (int) ((pair * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+            while (table[slot] != 0L) {
+                if (table[slot] == pair) return false;
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = pair;
+            return true;
+        }
+    }
+}
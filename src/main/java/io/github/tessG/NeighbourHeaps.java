@@ -0,0 +1,165 @@
+package io.github.tessG;
+
+import java.util.Arrays;
+
+/**
+ * One bounded min-heap of the k best neighbours per node, in flat primitive arrays
+ * The root of each heap is the weakest kept neighbour, so a new candidate
+ * only has to beat that one. Ties are broken towards the lower node id,
+ * which keeps the result independent of scoring order.
+ */
+public class NeighbourHeaps {
+
+    private final int nodeCount;
+    private final int k;
+    private final int[] neighbours;
+    private final float[] scores;
+    private final int[] counts;
+
+    public NeighbourHeaps(int nodeCount, int k) {
+        this.nodeCount = nodeCount;
+        this.k = k;
+        this.neighbours = new int[nodeCount * k];
+        this.scores = new float[nodeCount * k];
+        this.counts = new int[nodeCount];
+    }
+
+    /**
+     * k-NN cap on a full threshold graph: the same edges the k-NN scoring keeps
+     */
+    public static EdgeList keepStrongest(EdgeList edges, int nodeCount, int k) {
+        NeighbourHeaps heaps = new NeighbourHeaps(nodeCount, k);
+        for (int e = 0; e < edges.size(); e++) {
+            heaps.offerPair(edges.getSource(e), edges.getTarget(e), edges.getSimilarity(e));
+        }
+        return heaps.toEdges();
+    }
+
+    /**
+     * Offer the pair to both endpoints' heaps
+     */
+    public void offerPair(int a, int b, double similarity) {
+        offer(a, b, (float) similarity);
+        offer(b, a, (float) similarity);
+    }
+
+    /**
+     * Threshold below which a pair cannot enter either endpoint's heap
+     * Lowered by one float ulp so a score that ties after float rounding is still offered
+     */
+    public double admissionThreshold(int a, int b, double threshold) {
+        if (counts[a] < k || counts[b] < k) return threshold;
+        float weakest = Math.min(scores[a * k], scores[b * k]);
+        return Math.max(threshold, (double) weakest - Math.ulp(weakest));
+    }
+
+    /**
+     * Merge another set of heaps (e.g. from a parallel tile) into this one
+     */
+    public void mergeFrom(NeighbourHeaps other) {
+        for (int node = 0; node < nodeCount; node++) {
+            int base = node * k;
+            for (int slot = 0; slot < other.counts[node]; slot++) {
+                offer(node, other.neighbours[base + slot], other.scores[base + slot]);
+            }
+        }
+    }
+
+    /**
+     * Union of all kept (node, neighbour) pairs as edges sorted by (source, target)
+     */
+    public EdgeList toEdges() {
+        int total = 0;
+        for (int count : counts) total += count;
+
+        // Pack (low id, high id) so duplicates from both directions sort together
+        long[] packed = new long[total];
+        int n = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            int base = node * k;
+            for (int slot = 0; slot < counts[node]; slot++) {
+                int other = neighbours[base + slot];
+                packed[n++] = ((long) Math.min(node, other) << 32) | Math.max(node, other);
+            }
+        }
+        Arrays.sort(packed);
+
+        EdgeList edges = new EdgeList(total);
+        for (int i = 0; i < total; i++) {
+            if (i > 0 && packed[i] == packed[i - 1]) continue;
+            int source = (int) (packed[i] >>> 32);
+            int target = (int) packed[i];
+            edges.add(source, target, scoreOf(source, target));
+        }
+        return edges;
+    }
+
+    private float scoreOf(int node, int neighbour) {
+        int base = node * k;
+        for (int slot = 0; slot < counts[node]; slot++) {
+            if (neighbours[base + slot] == neighbour) return scores[base + slot];
+        }
+        // Kept only in the neighbour's heap
+        base = neighbour * k;
+        for (int slot = 0; slot < counts[neighbour]; slot++) {
+            if (neighbours[base + slot] == node) return scores[base + slot];
+        }
+        return Float.NaN;
+    }
+
+    private void offer(int node, int neighbour, float score) {
+        int base = node * k;
+        int count = counts[node];
+        if (count < k) {
+            neighbours[base + count] = neighbour;
+            scores[base + count] = score;
+            counts[node] = count + 1;
+            siftUp(base, count);
+        } else if (weaker(scores[base], neighbours[base], score, neighbour)) {
+            neighbours[base] = neighbour;
+            scores[base] = score;
+            siftDown(base, k);
+        }
+    }
+
+    /**
+     * True if (scoreA, idA) ranks below (scoreB, idB); lower ids win ties
+     */
+    private static boolean weaker(float scoreA, int idA, float scoreB, int idB) {
+        return scoreA < scoreB || (scoreA == scoreB && idA > idB);
+    }
+
+    private void siftUp(int base, int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (!weaker(scores[base + slot], neighbours[base + slot], scores[base + parent], neighbours[base + parent])) break;
+            swap(base + slot, base + parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int base, int count) {
+        int slot = 0;
+        while (true) {
+            int left = 2 * slot + 1;
+            if (left >= count) break;
+            int right = left + 1;
+            int weakest = left;
+            if (right < count && weaker(scores[base + right], neighbours[base + right], scores[base + left], neighbours[base + left])) {
+                weakest = right;
+            }
+            if (!weaker(scores[base + weakest], neighbours[base + weakest], scores[base + slot], neighbours[base + slot])) break;
+            swap(base + slot, base + weakest);
+            slot = weakest;
+        }
+    }
+
+    private void swap(int x, int y) {
+        int id = neighbours[x];
+        neighbours[x] = neighbours[y];
+        neighbours[y] = id;
+        float score = scores[x];
+        scores[x] = scores[y];
+        scores[y] = score;
+    }
+}
@@ -0,0 +1,173 @@
+package io.github.tessG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar node storage for the similarity graph
+ * One primitive array per attribute instead of a HashMap per node.
+ * Node ids are row indexes; category names are interned to small int ids.
+ */
+public class NodeTable {
+    private int size;
+    private String[] text;
+    private String[] comment;
+    private int[] categoryId;
+    private int[] weight;
+    private int[] width;
+    private int[] height;
+    private float[] x;
+    private float[] y;
+    // Texts of the posts collapsed into a node (StatementDeduplicator); null for a single post
+    private String[][] members;
+    
+    private final List<String> categoryNames = new ArrayList<>();
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+    
+    public NodeTable() {
+        this(16);
+    }
+    
+    public NodeTable(int capacity) {
+        capacity = Math.max(1, capacity);
+        text = new String[capacity];
+        comment = new String[capacity];
+        categoryId = new int[capacity];
+        weight = new int[capacity];
+        width = new int[capacity];
+        height = new int[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        members = new String[capacity][];
+    }
+    
+    /**
+     * Append a node and return its id
+     */
+    public int add(String category, String nodeText, int nodeWeight, String nodeComment, int nodeWidth, int nodeHeight) {
+        if (size == text.length) grow();
+        int id = size++;
+        text[id] = nodeText;
+        comment[id] = nodeComment;
+        categoryId[id] = internCategory(category);
+        weight[id] = nodeWeight;
+        width[id] = nodeWidth;
+        height[id] = nodeHeight;
+        x[id] = Float.NaN;
+        y[id] = Float.NaN;
+        members[id] = null;
+        return id;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public String getText(int id) {
+        return text[id];
+    }
+    
+    public String getComment(int id) {
+        return comment[id];
+    }
+    
+    public int getCategoryId(int id) {
+        return categoryId[id];
+    }
+    
+    public String getCategory(int id) {
+        return categoryNames.get(categoryId[id]);
+    }
+    
+    public int getWeight(int id) {
+        return weight[id];
+    }
+    
+    public int getWidth(int id) {
+        return width[id];
+    }
+    
+    public int getHeight(int id) {
+        return height[id];
+    }
+    
+    public float getX(int id) {
+        return x[id];
+    }
+    
+    public float getY(int id) {
+        return y[id];
+    }
+    
+    /**
+     * False until a layout has placed the node
+     */
+    public boolean hasPosition(int id) {
+        return !Float.isNaN(x[id]) && !Float.isNaN(y[id]);
+    }
+    
+    public void setPosition(int id, float nodeX, float nodeY) {
+        x[id] = nodeX;
+        y[id] = nodeY;
+    }
+    
+    /**
+     * Number of posts the node stands for
+     */
+    public int getCount(int id) {
+        return members[id] == null ? 1 : members[id].length;
+    }
+    
+    /**
+     * Texts of the collapsed posts, or an empty array for a single post
+     */
+    public String[] getMembers(int id) {
+        return members[id] == null ? new String[0] : members[id].clone();
+    }
+    
+    public void setMembers(int id, String[] memberTexts) {
+        members[id] = memberTexts.length > 1 ? memberTexts.clone() : null;
+    }
+    
+    public int getCategoryCount() {
+        return categoryNames.size();
+    }
+    
+    public String getCategoryName(int categoryIndex) {
+        return categoryNames.get(categoryIndex);
+    }
+    
+    /**
+     * Interned id of a category name, or -1 if no node has it
+     */
+    public int findCategoryId(String category) {
+        Integer id = categoryIds.get(category);
+        return id == null ? -1 : id;
+    }
+    
+    private int internCategory(String category) {
+        Integer id = categoryIds.get(category);
+        if (id == null) {
+            id = categoryNames.size();
+            categoryNames.add(category);
+            categoryIds.put(category, id);
+        }
+        return id;
+    }
+    
+    private void grow() {
+        int capacity = text.length * 2;
+        text = Arrays.copyOf(text, capacity);
+        comment = Arrays.copyOf(comment, capacity);
+        categoryId = Arrays.copyOf(categoryId, capacity);
+        weight = Arrays.copyOf(weight, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        members = Arrays.copyOf(members, capacity);
+    }
+}
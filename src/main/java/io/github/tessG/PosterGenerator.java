@@ -2,11 +2,8 @@ package io.github.tessG;
 
 
 
-import com.anthropic.client.AnthropicClient;
-import com.anthropic.client.okhttp.AnthropicOkHttpClient;
-import com.anthropic.models.messages.MessageCreateParams;
-import com.anthropic.models.messages.Message;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 /**
@@ -16,22 +13,29 @@ import java.util.Map;
  */
 public class PosterGenerator {
     
+    // Colours for the largest themes on the similarity graph; smaller themes share the grey
+    private static final String[] THEME_COLORS = {
+        "#805ad5", "#dd6b20", "#319795", "#d53f8c", "#2b6cb0", "#2f855a", "#b7791f", "#9b2c2c"
+    };
+    private static final String OTHER_THEME_COLOR = "#a0aec0";
+    
     /**
      * Generate Delphi A3 Landscape Dashboard
      * Dimensions: 2480px x 1754px (A3 landscape at 150ppi)
      */
     public static String generateDelphiDashboard(
-            List<Map<String, Object>> nodes,
-            List<Map<String, Object>> edges,
+            NodeTable nodes,
+            EdgeList edges,
+            List<StatementCluster> clusters,
             EvaluationConfig config,
             Map<String, String> analysis,
             List<Map<String, Object>> contradictions,
-            List<String> suggestions,
-            Map<String, List<Statement>> categorized) {
+            List<String> suggestions) {
         
         // Convert data to JSON
-        String graphDataJson = buildGraphDataJson(nodes, edges);
-        String contradictionsJson = buildContradictionsJson(contradictions, categorized);
+        int[] component = GraphClustering.connectedComponents(nodes.size(), edges);
+        String graphDataJson = buildGraphDataJson(nodes, edges, clusters, component);
+        String contradictionsJson = buildContradictionsJson(contradictions, new StatementIndex(nodes));
         
         // Build HTML
         StringBuilder html = new StringBuilder();
@@ -54,7 +58,8 @@ public class PosterGenerator {
         html.append("<div class=\"similarity-graph\">\n");
         html.append("<h2>🔗 Forbindelser mellem udsagn</h2>\n");
         html.append("<svg id=\"similarityGraph\" width=\"1200\" height=\"800\"></svg>\n");
-        html.append("<div class=\"connections-info\">").append(edges.size()).append(" forbindelser mellem ").append(nodes.size()).append(" udsagn</div>\n");
+        html.append("<div class=\"connections-info\">").append(edges.size()).append(" forbindelser mellem ").append(nodes.size()).append(" udsagn · ").append(clusters.size()).append(" temaer · ").append(countConnectedGroups(component)).append(" sammenhængende grupper</div>\n");
+        html.append(buildThemeLegend(clusters));
         html.append("</div>\n");
         
         // Contradictory Graph
@@ -90,8 +95,8 @@ public class PosterGenerator {
      * Keep current dimensions and style
      */
     public static String generateDSCPoster(
-            List<Map<String, Object>> nodes,
-            List<Map<String, Object>> edges,
+            NodeTable nodes,
+            EdgeList edges,
             EvaluationConfig config,
             Map<String, String> analysis) {
         
@@ -107,7 +112,8 @@ public class PosterGenerator {
     public static String generateDSCPoster(
             List<String> statements,
             EvaluationConfig config,
-            Map<String, String> analysis) throws Exception {
+            Map<String, String> analysis,
+            ClaudeAnalysisService analysisService) throws Exception {
        String headline = analysis.get("headline");
       String summary =  analysis.get("summary");
       String funnyStatement =  analysis.get("funnyStatement");
@@ -130,18 +136,9 @@ public class PosterGenerator {
 
 
          //To have claude generate the HTML call this:
-        AnthropicClient client = AnthropicOkHttpClient.fromEnv();
-
-        MessageCreateParams params = MessageCreateParams.builder()
-                .model("claude-sonnet-4-5-20250929")
-                .maxTokens(8000)  // Increased for HTML generation
-                .addUserMessage(buildDSCPrompt(statements,headline,funnyStatement,summary,keyInsight, config))
-                .build();
-
-        Message message = client.messages().create(params);
-
-        // Extract text properly to avoid debug output
-        String response = String.valueOf(message.content().get(0).text());
+        // Shared client from the analysis service; 8000 tokens for HTML generation
+        String response = analysisService.complete(
+                buildDSCPrompt(statements,headline,funnyStatement,summary,keyInsight, config), 8000);
 
 
         // Extract HTML (remove any markdown markers if present)
@@ -311,40 +308,105 @@ public class PosterGenerator {
         return html.toString();
     }
     
-    private static String buildGraphDataJson(List<Map<String, Object>> nodes, List<Map<String, Object>> edges) {
-        StringBuilder nodesJson = new StringBuilder("[");
-        for (int i = 0; i < nodes.size(); i++) {
-            if (i > 0) nodesJson.append(",");
-            Map<String, Object> node = nodes.get(i);
-            nodesJson.append("{")
-                .append("\"id\":").append(node.get("id")).append(",")
-                .append("\"category\":\"").append(escapeJson((String)node.get("category"))).append("\",")
-                .append("\"text\":\"").append(escapeJson((String)node.get("text"))).append("\",")
-                .append("\"width\":").append(node.get("width")).append(",")
-                .append("\"height\":").append(node.get("height")).append(",")
-                .append("\"x\":").append(node.get("x")).append(",")
-                .append("\"y\":").append(node.get("y"))
-                .append("}");
+    /**
+     * Components with at least two statements (isolated statements are not a group)
+     */
+    private static int countConnectedGroups(int[] component) {
+        int[] size = new int[component.length];
+        int groups = 0;
+        for (int c : component) {
+            if (++size[c] == 2) groups++;
+        }
+        return groups;
+    }
+    
+    /**
+     * Theme colour by cluster id; clusters are sorted by size, so the largest themes get the palette
+     */
+    private static String themeColor(int clusterId) {
+        return clusterId < THEME_COLORS.length ? THEME_COLORS[clusterId] : OTHER_THEME_COLOR;
+    }
+    
+    private static String buildThemeLegend(List<StatementCluster> clusters) {
+        if (clusters.isEmpty()) return "";
+        StringBuilder html = new StringBuilder("<div class=\"theme-legend\">\n");
+        for (StatementCluster cluster : clusters) {
+            if (cluster.getId() >= THEME_COLORS.length) break;
+            String label = cluster.getKeywords().isEmpty()
+                ? "Tema " + (cluster.getId() + 1)
+                : String.join(", ", cluster.getKeywords());
+            html.append("<span class=\"theme\"><span class=\"swatch\" style=\"background: ")
+                .append(themeColor(cluster.getId())).append("\"></span>")
+                .append(escapeHtml(label)).append(" (").append(cluster.getSize()).append(")</span>\n");
+        }
+        if (clusters.size() > THEME_COLORS.length) {
+            html.append("<span class=\"theme\"><span class=\"swatch\" style=\"background: ")
+                .append(OTHER_THEME_COLOR).append("\"></span>")
+                .append(clusters.size() - THEME_COLORS.length).append(" mindre temaer</span>\n");
+        }
+        html.append("</div>\n");
+        return html.toString();
+    }
+    
+    private static String buildGraphDataJson(NodeTable nodes, EdgeList edges, List<StatementCluster> clusters,
+                                             int[] component) {
+        int[] clusterOf = new int[nodes.size()];
+        Arrays.fill(clusterOf, -1);
+        for (StatementCluster cluster : clusters) {
+            for (int id : cluster.getNodeIds()) clusterOf[id] = cluster.getId();
         }
-        nodesJson.append("]");
         
-        StringBuilder edgesJson = new StringBuilder("[");
+        StringBuilder json = new StringBuilder(nodes.size() * 170 + edges.size() * 48);
+        json.append("{\"nodes\":[");
+        for (int i = 0; i < nodes.size(); i++) {
+            if (i > 0) json.append(",");
+            json.append("{")
+                .append("\"id\":").append(i).append(",")
+                .append("\"category\":\"").append(escapeJson(nodes.getCategory(i))).append("\",")
+                .append("\"text\":\"").append(escapeJson(nodes.getText(i))).append("\",")
+                .append("\"width\":").append(nodes.getWidth(i)).append(",")
+                .append("\"height\":").append(nodes.getHeight(i)).append(",")
+                .append("\"cluster\":").append(clusterOf[i] >= 0 ? String.valueOf(clusterOf[i]) : "null").append(",")
+                .append("\"component\":").append(component[i]).append(",")
+                .append("\"count\":").append(nodes.getCount(i)).append(",");
+            if (nodes.getCount(i) > 1) {
+                json.append("\"members\":[");
+                String[] members = nodes.getMembers(i);
+                for (int m = 0; m < members.length; m++) {
+                    if (m > 0) json.append(",");
+                    json.append("\"").append(escapeJson(members[m])).append("\"");
+                }
+                json.append("],");
+            }
+            if (nodes.hasPosition(i)) {
+                json.append("\"x\":").append(Math.round(nodes.getX(i))).append(",")
+                    .append("\"y\":").append(Math.round(nodes.getY(i)));
+            } else {
+                json.append("\"x\":null,\"y\":null");
+            }
+            json.append("}");
+        }
+        json.append("],\"edges\":[");
         for (int i = 0; i < edges.size(); i++) {
-            if (i > 0) edgesJson.append(",");
-            Map<String, Object> edge = edges.get(i);
-            edgesJson.append("{")
-                .append("\"source\":").append(edge.get("source")).append(",")
-                .append("\"target\":").append(edge.get("target")).append(",")
-                .append("\"similarity\":").append(edge.get("similarity"))
+            if (i > 0) json.append(",");
+            json.append("{")
+                .append("\"source\":").append(edges.getSource(i)).append(",")
+                .append("\"target\":").append(edges.getTarget(i)).append(",")
+                .append("\"similarity\":").append(edges.getSimilarity(i))
                 .append("}");
         }
-        edgesJson.append("]");
-        
-        return "{\"nodes\":" + nodesJson + ",\"edges\":" + edgesJson + "}";
+        json.append("],\"clusters\":[");
+        for (StatementCluster cluster : clusters) {
+            if (cluster.getId() > 0) json.append(",");
+            json.append("{\"id\":").append(cluster.getId())
+                .append(",\"color\":\"").append(themeColor(cluster.getId())).append("\"}");
+        }
+        json.append("]}");
+        return json.toString();
     }
     
     private static String buildContradictionsJson(List<Map<String, Object>> contradictions, 
-                                                   Map<String, List<Statement>> categorized) {
+                                                   StatementIndex index) {
         StringBuilder json = new StringBuilder("[");
         for (int i = 0; i < contradictions.size(); i++) {
             if (i > 0) json.append(",");
@@ -352,14 +414,18 @@ public class PosterGenerator {
             String stmt1 = (String) contra.get("statement1");
             String stmt2 = (String) contra.get("statement2");
             
-            String cat1 = GraphDataService.findStatementCategory(stmt1, categorized);
-            String cat2 = GraphDataService.findStatementCategory(stmt2, categorized);
+            StatementIndex.Match match1 = index.find(stmt1);
+            StatementIndex.Match match2 = index.find(stmt2);
+            String cat1 = match1 != null ? match1.getCategory() : "Unknown";
+            String cat2 = match2 != null ? match2.getCategory() : "Unknown";
             
             json.append("{")
                 .append("\"statement1\":\"").append(escapeJson(stmt1)).append("\",")
                 .append("\"statement2\":\"").append(escapeJson(stmt2)).append("\",")
                 .append("\"category1\":\"").append(escapeJson(cat1)).append("\",")
                 .append("\"category2\":\"").append(escapeJson(cat2)).append("\",")
+                .append("\"node1\":").append(match1 != null ? match1.getNodeId() : "null").append(",")
+                .append("\"node2\":").append(match2 != null ? match2.getNodeId() : "null").append(",")
                 .append("\"tension\":").append(contra.get("tension")).append(",")
                 .append("\"theme\":\"").append(escapeJson((String)contra.get("theme"))).append("\"")
                 .append("}");
@@ -399,16 +465,24 @@ public class PosterGenerator {
 "    .edge.strong { stroke-width: 2.5; stroke-opacity: 0.5; stroke: #718096; }\n" +
 "    .contradiction-edge { stroke: #e53e3e; stroke-width: 3; stroke-dasharray: 8,6; fill: none; opacity: 0.7; }\n" +
 "    .contradiction-edge.high-tension { stroke-width: 4; opacity: 0.9; stroke: #c53030; }\n" +
+"    .contradiction-link { stroke: #e53e3e; stroke-width: 2; stroke-dasharray: 6,4; fill: none; opacity: 0.5; }\n" +
+"    .contradiction-link.active { stroke-width: 4; opacity: 1; }\n" +
 "    .node-box { cursor: pointer; transition: all 0.2s; stroke-width: 2.5; }\n" +
 "    .node-box.keep-doing { fill: #e6f7ed; stroke: #48bb78; }\n" +
 "    .node-box.stop-doing { fill: #fee; stroke: #f56565; }\n" +
 "    .node-box.start-doing { fill: #e6f2ff; stroke: #4299e1; }\n" +
 "    .node-box:hover { stroke-width: 4; filter: brightness(0.95); }\n" +
+"    .node-box.contradicted { stroke: #e53e3e; stroke-width: 6; }\n" +
 "    .node-text { font-size: 16px; fill: #333; pointer-events: none; font-weight: 500; }\n" +
+"    .node-count { font-size: 11px; fill: #718096; pointer-events: none; font-weight: 700; }\n" +
 "    .contradiction-node-text { font-size: 16px; fill: #1a202c; pointer-events: none; font-weight: 600; }\n" +
 "    .category-label { font-size: 24px; font-weight: bold; font-family: 'Permanent Marker', cursive; }\n" +
 "    .tension-label { font-size: 14px; fill: #e53e3e; font-weight: bold; font-family: 'Permanent Marker', cursive; }\n" +
 "    .connections-info { text-align: center; font-size: 14px; color: #718096; margin-top: 10px; font-style: italic; }\n" +
+"    .theme-legend { display: flex; flex-wrap: wrap; justify-content: center; gap: 8px 20px; margin-top: 10px; font-size: 15px; color: #4a5568; }\n" +
+"    .theme-legend .swatch { display: inline-block; width: 14px; height: 14px; border-radius: 3px; margin-right: 6px; vertical-align: middle; }\n" +
+"    .theme-tab { pointer-events: none; }\n" +
+"    .dimmed { opacity: 0.15; }\n" +
 "    @media print { body { background: white; margin: 0; padding: 0; } .poster-wrapper { transform: scale(1); } .poster { box-shadow: none; } }\n" +
 "</style>\n";
     }
@@ -422,11 +496,17 @@ public class PosterGenerator {
 "const simSvg = document.getElementById('similarityGraph');\n" +
 "const contraSvg = document.getElementById('contradictionGraph');\n" +
  "// Draw edges\n" +
+                "        const edgeLines = [];\n" +
                 "        similarityData.edges.forEach(edge => {\n" +
                 "            const source = similarityData.nodes[edge.source];\n" +
                 "            const target = similarityData.nodes[edge.target];\n" +
                 "            const line = document.createElementNS(ns, 'line');\n" +
                 "            line.setAttribute('class', edge.similarity > 0.55 ? 'edge strong' : 'edge');\n" +
+                "            // Edges inside a theme take the theme's colour\n" +
+                "            if (source.cluster !== null && source.cluster === target.cluster) {\n" +
+                "                line.setAttribute('style', `stroke: ${similarityData.clusters[source.cluster].color}`);\n" +
+                "            }\n" +
+                "            edgeLines.push(line);\n" +
                 "            line.setAttribute('x1', source.x + source.width/2);\n" +
                 "            line.setAttribute('y1', source.y + source.height/2);\n" +
                 "            line.setAttribute('x2', target.x + target.width/2);\n" +
@@ -434,7 +514,32 @@ public class PosterGenerator {
                 "            simSvg.appendChild(line);\n" +
                 "        });\n" +
                 "        \n" +
+                "        // Contradicting statements found on the board: dashed link between their boxes\n" +
+                "        const contradictionLinks = contradictionData.map(contra => {\n" +
+                "            if (contra.node1 === null || contra.node2 === null) return null;\n" +
+                "            const a = similarityData.nodes[contra.node1];\n" +
+                "            const b = similarityData.nodes[contra.node2];\n" +
+                "            const line = document.createElementNS(ns, 'line');\n" +
+                "            line.setAttribute('class', 'contradiction-link');\n" +
+                "            line.setAttribute('x1', a.x + a.width/2);\n" +
+                "            line.setAttribute('y1', a.y + a.height/2);\n" +
+                "            line.setAttribute('x2', b.x + b.width/2);\n" +
+                "            line.setAttribute('y2', b.y + b.height/2);\n" +
+                "            simSvg.appendChild(line);\n" +
+                "            return line;\n" +
+                "        });\n" +
+                "        \n" +
                 "        // Draw nodes\n" +
+                "        const nodeBoxes = [];\n" +
+                "        const nodeGroups = [];\n" +
+                "        function highlightComponent(component) {\n" +
+                "            similarityData.nodes.forEach(node => {\n" +
+                "                nodeGroups[node.id].classList.toggle('dimmed', component !== null && node.component !== component);\n" +
+                "            });\n" +
+                "            similarityData.edges.forEach((edge, i) => {\n" +
+                "                edgeLines[i].classList.toggle('dimmed', component !== null && similarityData.nodes[edge.source].component !== component);\n" +
+                "            });\n" +
+                "        }\n" +
                 "        similarityData.nodes.forEach(node => {\n" +
                 "            const g = document.createElementNS(ns, 'g');\n" +
                 "            const rect = document.createElementNS(ns, 'rect');\n" +
@@ -445,6 +550,35 @@ public class PosterGenerator {
                 "            rect.setAttribute('height', node.height);\n" +
                 "            rect.setAttribute('rx', 4);\n" +
                 "            g.appendChild(rect);\n" +
+                "            nodeBoxes[node.id] = rect;\n" +
+                "            // Theme colour as a tab on the left edge of the box\n" +
+                "            if (node.cluster !== null) {\n" +
+                "                const tab = document.createElementNS(ns, 'rect');\n" +
+                "                tab.setAttribute('class', 'theme-tab');\n" +
+                "                tab.setAttribute('x', node.x);\n" +
+                "                tab.setAttribute('y', node.y);\n" +
+                "                tab.setAttribute('width', 6);\n" +
+                "                tab.setAttribute('height', node.height);\n" +
+                "                tab.setAttribute('fill', similarityData.clusters[node.cluster].color);\n" +
+                "                g.appendChild(tab);\n" +
+                "            }\n" +
+                "            // Hovering a statement keeps everything connected to it and dims the rest\n" +
+                "            g.addEventListener('mouseenter', () => highlightComponent(node.component));\n" +
+                "            g.addEventListener('mouseleave', () => highlightComponent(null));\n" +
+                "            nodeGroups[node.id] = g;\n" +
+                "            // Collapsed near-duplicates: post count badge, the posts on hover\n" +
+                "            if (node.count > 1) {\n" +
+                "                const title = document.createElementNS(ns, 'title');\n" +
+                "                title.textContent = node.members.join('\\n');\n" +
+                "                g.appendChild(title);\n" +
+                "                const badge = document.createElementNS(ns, 'text');\n" +
+                "                badge.setAttribute('class', 'node-count');\n" +
+                "                badge.setAttribute('x', node.x + node.width - 4);\n" +
+                "                badge.setAttribute('y', node.y + 12);\n" +
+                "                badge.setAttribute('text-anchor', 'end');\n" +
+                "                badge.textContent = '×' + node.count;\n" +
+                "                g.appendChild(badge);\n" +
+                "            }\n" +
                 "            \n" +
                 "            const maxCharsPerLine = Math.floor(node.width / 7);\n" +
                 "            const words = node.text.split(' ');\n" +
@@ -473,6 +607,15 @@ public class PosterGenerator {
                 "        // CONTRADICTION GRAPH\n" +
                 "       // const contraSvg = document.getElementById('contradictionGraph');\n" +
                 "        \n" +
+                "        // Hovering a pair marks its two statements in the similarity graph\n" +
+                "        function highlightPair(index, on) {\n" +
+                "            const contra = contradictionData[index];\n" +
+                "            [contra.node1, contra.node2].forEach(id => {\n" +
+                "                if (id !== null) nodeBoxes[id].classList.toggle('contradicted', on);\n" +
+                "            });\n" +
+                "            if (contradictionLinks[index]) contradictionLinks[index].classList.toggle('active', on);\n" +
+                "        }\n" +
+                "        \n" +
                 "        // Helper function to get category color class\n" +
                 "        function getCategoryClass(category) {\n" +
                 "            return category.toLowerCase().replace(' ', '-');\n" +
@@ -552,6 +695,8 @@ public class PosterGenerator {
                 "                text.textContent = line;\n" +
                 "                leftG.appendChild(text);\n" +
                 "            });\n" +
+                "            leftG.addEventListener('mouseenter', () => highlightPair(index, true));\n" +
+                "            leftG.addEventListener('mouseleave', () => highlightPair(index, false));\n" +
                 "            contraSvg.appendChild(leftG);\n" +
                 "            \n" +
                 "            // Right node\n" +
@@ -589,6 +734,8 @@ public class PosterGenerator {
                 "                text.textContent = line;\n" +
                 "                rightG.appendChild(text);\n" +
                 "            });\n" +
+                "            rightG.addEventListener('mouseenter', () => highlightPair(index, true));\n" +
+                "            rightG.addEventListener('mouseleave', () => highlightPair(index, false));\n" +
                 "            contraSvg.appendChild(rightG);\n" +
                 "        });\n" +
                 "        \n" +
@@ -615,6 +762,23 @@ public class PosterGenerator {
 "</script>\n";
     }
     
+    /**
+     * Put the run's LLM usage into the poster head: a meta tag with the totals
+     * and an HTML comment with one line per call kind
+     */
+    public static String attachRunMetadata(String html, LlmRunStats run) {
+        if (run == null) return html;
+        String metadata = "<meta name=\"hivemind-llm-usage\" content=\"" + escapeHtml(run.getSummaryLine()) + "\">\n"
+                + "<!-- LLM calls for this poster\n" + run.getDetailLines().replace("--", "- -") + "-->\n";
+
+        int head = html.toLowerCase().indexOf("<head>");
+        if (head >= 0) {
+            int insertAt = head + "<head>".length();
+            return html.substring(0, insertAt) + "\n" + metadata + html.substring(insertAt);
+        }
+        return metadata + html;
+    }
+    
     private static String escapeHtml(String str) {
         if (str == null) return "";
         return str.replace("&", "&amp;")
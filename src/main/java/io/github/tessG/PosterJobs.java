@@ -0,0 +1,56 @@
+package io.github.tessG;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Full posters still being finished in the background
+ * With draft posters a workflow saves the extractive draft, returns it at once
+ * and leaves the Claude analysis to a job here, which overwrites the file.
+ * The preview page polls getStatus() and swaps in the full poster when it is saved.
+ */
+public class PosterJobs {
+
+    public enum Status { PENDING, READY, FAILED }
+
+    public interface Job {
+        void run() throws Exception;
+    }
+
+    private static final int THREADS = 2;
+    private static final Map<String, Status> STATUS = new ConcurrentHashMap<>();
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "poster-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Finish a poster in the background; the run's LLM stats move to the job
+     */
+    public static void submit(String filename, Job job) {
+        STATUS.put(filename, Status.PENDING);
+        LlmRunStats run = LlmRunStats.end();
+        POOL.execute(() -> {
+            LlmRunStats.attach(run);
+            try {
+                job.run();
+                STATUS.remove(filename);
+            } catch (Exception e) {
+                System.err.println("⚠️ Full poster for " + filename + " failed, the draft stays: " + e.getMessage());
+                STATUS.put(filename, Status.FAILED);
+            } finally {
+                LlmRunStats.attach(null);
+            }
+        });
+    }
+
+    /**
+     * READY for any file without a running job
+     */
+    public static Status getStatus(String filename) {
+        return STATUS.getOrDefault(filename, Status.READY);
+    }
+}
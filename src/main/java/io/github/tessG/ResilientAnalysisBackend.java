@@ -0,0 +1,123 @@
+package io.github.tessG;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limiting, retries and a circuit breaker around another backend
+ * Every attempt takes a token from the shared bucket. Transient failures
+ * (429, 529/5xx, timeouts) are retried with full-jitter exponential backoff,
+ * honouring retry-after when the API sends one; other errors pass straight through.
+ */
+public class ResilientAnalysisBackend implements AnalysisBackend {
+
+    private final AnalysisBackend delegate;
+    private final TokenBucket limiter;
+    private final CircuitBreaker breaker;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong throttledMs = new AtomicLong();
+
+    public ResilientAnalysisBackend(AnalysisBackend delegate, TokenBucket limiter, CircuitBreaker breaker,
+                                    int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.breaker = breaker;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return delegate.isCacheable();
+    }
+
+    @Override
+    public String getModel() {
+        return delegate.getModel();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public AnalysisResponse complete(AnalysisRequest request) {
+        calls.incrementAndGet();
+        for (int attempt = 1; ; attempt++) {
+            if (!breaker.allowRequest()) {
+                rejected.incrementAndGet();
+                throw new AnalysisUnavailableException("Analysis API circuit is open; try again shortly");
+            }
+
+            try {
+                throttledMs.addAndGet(limiter.acquire());
+            } catch (InterruptedException e) {
+                breaker.recordIgnored();
+                Thread.currentThread().interrupt();
+                throw new AnalysisUnavailableException("Interrupted while waiting for the rate limiter", e);
+            }
+
+            try {
+                AnalysisResponse response = delegate.complete(request);
+                breaker.recordSuccess();
+                successes.incrementAndGet();
+                return response;
+            } catch (RuntimeException e) {
+                if (!delegate.isTransient(e)) {
+                    breaker.recordIgnored();
+                    failures.incrementAndGet();
+                    throw e;
+                }
+                breaker.recordFailure();
+                if (attempt >= maxAttempts) {
+                    failures.incrementAndGet();
+                    throw new AnalysisUnavailableException(
+                            request.getKind() + " failed after " + attempt + " attempts: " + e.getMessage(), e);
+                }
+
+                long delay = backoff(attempt, delegate.getRetryAfterMs(e));
+                retries.incrementAndGet();
+                System.out.println("🔁 " + request.getKind() + " attempt " + attempt + " failed ("
+                        + e.getClass().getSimpleName() + "), retrying in " + delay + " ms");
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    failures.incrementAndGet();
+                    throw new AnalysisUnavailableException("Interrupted while backing off", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Full jitter: uniform in [0, min(max, base · 2^(attempt-1))], never below retry-after
+     */
+    private long backoff(int attempt, long retryAfterMs) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        return Math.max(delay, retryAfterMs);
+    }
+
+    public String getStatsLine() {
+        return "🛡️ Analysis calls: " + calls.get() + " (" + successes.get() + " ok, " + failures.get() + " failed), "
+                + retries.get() + " retries, " + rejected.get() + " rejected by breaker ("
+                + breaker.getState() + ", opened " + breaker.getTimesOpened() + "x), "
+                + throttledMs.get() + " ms throttled";
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.tessG;
+
+/**
+ * Plain loop fallback, used when jdk.incubator.vector is not available
+ */
+public class ScalarDotKernel implements DotKernel {
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public float dot(float[] a, int offsetA, float[] b, int offsetB, int length) {
+        float sum = 0f;
+        for (int k = 0; k < length; k++) {
+            sum += a[offsetA + k] * b[offsetB + k];
+        }
+        return sum;
+    }
+}
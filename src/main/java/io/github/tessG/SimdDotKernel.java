@@ -0,0 +1,37 @@
+package io.github.tessG;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernel using the widest float species the CPU supports
+ * Only compiled in the simd Maven profile and only loaded through DotKernels,
+ * so the default build and app need no --add-modules jdk.incubator.vector
+ */
+public class SimdDotKernel implements DotKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public String getName() {
+        return "simd-" + SPECIES.vectorBitSize() + "bit";
+    }
+
+    @Override
+    public float dot(float[] a, int offsetA, float[] b, int offsetB, int length) {
+        FloatVector sum = FloatVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int k = 0;
+        for (; k < upper; k += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, offsetA + k);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, offsetB + k);
+            sum = va.fma(vb, sum);
+        }
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        for (; k < length; k++) {
+            result += a[offsetA + k] * b[offsetB + k];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,496 @@
+package io.github.tessG;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Similarity edges of earlier boards, reused pair by pair
+ * Each stored board keeps the sorted hashes of its lowercased texts and its
+ * edges at or above a threshold floor. A new board is matched to the stored
+ * board of the same metric with the most texts in common (any post order):
+ * pairs between shared texts come from the cache, only pairs with a new text
+ * are scored. A stored floor serves every higher threshold and any k-NN cap,
+ * so one entry covers all EvaluationConfig types of a metric. Corpus
+ * dependent metrics (tfidf) are only reused for exactly the same texts.
+ *
+ * Tier 1: in-memory LRU of loaded boards. Tier 2: one file per board in a
+ * directory, memory-mapped on load, written once per board that needed
+ * scoring (temp file + atomic move); the least recently used files are
+ * removed past a cap.
+ */
+public class SimilarityCache {
+
+    private static final int MAGIC = 0x484D5345; // "HMSE"
+    private static final int VERSION = 3;
+    private static final String SUFFIX = ".edges";
+
+    // With less than this share of the board known, a fresh (parallel) run is as cheap
+    private static final double MIN_KNOWN_SHARE = 0.5;
+
+    private static final int DEFAULT_MEMORY_BOARDS = 32;
+    private static final int DEFAULT_DISK_BOARDS = 256;
+
+    private static SimilarityCache shared;
+
+    /**
+     * Scores what the cache cannot supply
+     */
+    public interface MissingPairs {
+        /**
+         * Edges (source < target) of every pair with an endpoint that is not known; null means all pairs
+         */
+        EdgeList score(boolean[] known);
+    }
+
+    // Every stored board, least recently used first; edges are loaded on demand
+    private final List<Board> boards = new ArrayList<>();
+    private final Map<Long, Edges> memory;
+    private final Path directory;
+    private final int maxBoards;
+    private boolean catalogLoaded;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong partialHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reusedPairs = new AtomicLong();
+    private final AtomicLong scoredPairs = new AtomicLong();
+
+    public SimilarityCache(int memoryBoards, Path directory, int diskBoards) {
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Edges> eldest) {
+                return size() > memoryBoards;
+            }
+        };
+
+        Path usable = directory;
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+                System.out.println("🗄️ Similarity cache directory: " + directory.toAbsolutePath());
+            } catch (IOException e) {
+                System.err.println("⚠️ Similarity cache running in memory only: " + e.getMessage());
+                usable = null;
+            }
+        }
+        this.directory = usable;
+        this.maxBoards = usable != null ? diskBoards : memoryBoards;
+    }
+
+    /**
+     * Process-wide cache, directory from HIVEMIND_SIMILARITY_CACHE
+     */
+    public static synchronized SimilarityCache getShared() {
+        if (shared == null) {
+            String dir = System.getenv().getOrDefault("HIVEMIND_SIMILARITY_CACHE", "similarity-cache");
+            shared = new SimilarityCache(DEFAULT_MEMORY_BOARDS, Paths.get(dir), DEFAULT_DISK_BOARDS);
+        }
+        return shared;
+    }
+
+    /**
+     * All edges at or above the threshold, sorted by (source, target)
+     * Pairs of texts seen together before are taken from the cache; the
+     * rest come from missing, and the completed board is stored.
+     */
+    public EdgeList edges(SimilarityMetric metric, String[] texts, double threshold, MissingPairs missing) {
+        int n = texts.length;
+        long total = (long) n * (n - 1) / 2;
+        if (n < 2) return missing.score(null);
+
+        long[] hashes = new long[n];
+        for (int v = 0; v < n; v++) hashes[v] = textHash(texts[v]);
+
+        Board base;
+        Edges cached = null;
+        int[] rankOfNode = null;
+        synchronized (this) {
+            base = bestBoard(metric, hashes, threshold);
+            if (base != null) {
+                cached = load(base);
+                if (cached != null) {
+                    rankOfNode = match(base.hashes, hashes);
+                    touch(base);
+                }
+            }
+        }
+
+        if (cached == null) {
+            misses.incrementAndGet();
+            scoredPairs.addAndGet(total);
+            EdgeList edges = missing.score(null);
+            store(metric, hashes, threshold, edges);
+            return edges;
+        }
+
+        // Shared texts: cached edges between them, filtered to this threshold
+        boolean[] known = new boolean[n];
+        int[] nodeByRank = new int[base.hashes.length];
+        Arrays.fill(nodeByRank, -1);
+        int knownCount = 0;
+        for (int v = 0; v < n; v++) {
+            if (rankOfNode[v] < 0) continue;
+            known[v] = true;
+            nodeByRank[rankOfNode[v]] = v;
+            knownCount++;
+        }
+        boolean filter = base.threshold != threshold;
+        float floor = (float) threshold;
+        EdgeList edges = new EdgeList();
+        for (int e = 0; e < cached.similarity.length; e++) {
+            int a = nodeByRank[cached.rankSource[e]];
+            int b = nodeByRank[cached.rankTarget[e]];
+            if (a < 0 || b < 0 || (filter && cached.similarity[e] < floor)) continue;
+            edges.add(a, b, cached.similarity[e]);
+        }
+
+        long reused = (long) knownCount * (knownCount - 1) / 2;
+        reusedPairs.addAndGet(reused);
+        if (knownCount == n) {
+            hits.incrementAndGet();
+            return edges.sorted(n);
+        }
+
+        partialHits.incrementAndGet();
+        scoredPairs.addAndGet(total - reused);
+        edges.addAll(missing.score(known));
+        edges = edges.sorted(n);
+        store(metric, hashes, threshold, edges);
+        return edges;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getPartialHits() {
+        return partialHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Share of all requested pairs that came from the cache
+     */
+    public double getHitRate() {
+        long total = reusedPairs.get() + scoredPairs.get();
+        return total == 0 ? 0.0 : (double) reusedPairs.get() / total;
+    }
+
+    public String getStatsLine() {
+        return "🗄️ Similarity cache: " + hits.get() + " boards reused, " + partialHits.get() + " partly, "
+                + misses.get() + " misses (" + diskHits.get() + " loaded from disk), "
+                + String.format("%.1f%%", getHitRate() * 100) + " of pairs reused";
+    }
+
+    /**
+     * Stored board of this metric with the most texts in common and a floor at or below the threshold
+     */
+    private Board bestBoard(SimilarityMetric metric, long[] hashes, double threshold) {
+        loadCatalog();
+        long[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+
+        Board best = null;
+        int bestShared = 0;
+        for (Board board : boards) {
+            if (!board.metric.equals(metric.getName()) || board.threshold > threshold) continue;
+            int shared = sharedCount(board.hashes, sorted);
+            // Scores of a corpus dependent metric are only valid for the same texts
+            if (!metric.isPairwise() && (shared != hashes.length || board.hashes.length != hashes.length)) continue;
+            if (shared >= bestShared && shared > 0) {
+                best = board;
+                bestShared = shared;
+            }
+        }
+        return bestShared >= MIN_KNOWN_SHARE * hashes.length ? best : null;
+    }
+
+    /**
+     * Texts two sorted hash lists have in common, duplicates counted as often as both hold them
+     */
+    private static int sharedCount(long[] a, long[] b) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Rank in the stored board for each node, or -1 for a text it does not hold
+     * Equal texts fill their run of ranks in node order; extra copies are new
+     */
+    private static int[] match(long[] boardHashes, long[] hashes) {
+        int[] taken = new int[boardHashes.length];
+        int[] rankOfNode = new int[hashes.length];
+        for (int v = 0; v < hashes.length; v++) {
+            int first = firstRank(boardHashes, hashes[v]);
+            int rank = first < boardHashes.length ? first + taken[first] : -1;
+            if (rank >= 0 && rank < boardHashes.length && boardHashes[rank] == hashes[v]) {
+                taken[first]++;
+                rankOfNode[v] = rank;
+            } else {
+                rankOfNode[v] = -1;
+            }
+        }
+        return rankOfNode;
+    }
+
+    private static int firstRank(long[] sorted, long hash) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Keep the board's edges in rank space (position in its sorted hashes)
+     */
+    private void store(SimilarityMetric metric, long[] hashes, double threshold, EdgeList edges) {
+        long[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+        int[] rankOfNode = match(sorted, hashes);
+
+        Edges stored = new Edges(new int[edges.size()], new int[edges.size()], new float[edges.size()]);
+        for (int e = 0; e < edges.size(); e++) {
+            stored.rankSource[e] = rankOfNode[edges.getSource(e)];
+            stored.rankTarget[e] = rankOfNode[edges.getTarget(e)];
+            stored.similarity[e] = edges.getSimilarity(e);
+        }
+        Board board = new Board(boardKey(metric.getName(), threshold, sorted), metric.getName(), threshold, sorted);
+
+        synchronized (this) {
+            boards.removeIf(existing -> existing.key == board.key);
+            boards.add(board);
+            memory.put(board.key, stored);
+            while (boards.size() > maxBoards) {
+                Board evicted = boards.remove(0);
+                memory.remove(evicted.key);
+                delete(evicted);
+            }
+        }
+        if (directory != null) write(board, stored);
+    }
+
+    private static long boardKey(String metricName, double threshold, long[] sortedHashes) {
+        long hash = textHash(metricName + '\u0000' + threshold);
+        for (long textHash : sortedHashes) {
+            hash = (hash ^ textHash) * 0x100000001b3L;
+        }
+        return hash ^ sortedHashes.length;
+    }
+
+    private void touch(Board board) {
+        boards.remove(board);
+        boards.add(board);
+    }
+
+    private Edges load(Board board) {
+        Edges edges = memory.get(board.key);
+        if (edges != null || directory == null) return edges;
+
+        edges = readEdges(fileFor(board.key), board.hashes.length);
+        if (edges == null) {
+            // File gone or damaged: forget the board
+            boards.remove(board);
+            return null;
+        }
+        memory.put(board.key, edges);
+        diskHits.incrementAndGet();
+        return edges;
+    }
+
+    /**
+     * Read every board header (metric, floor, text hashes) once; edges stay on disk
+     */
+    private void loadCatalog() {
+        if (catalogLoaded || directory == null) return;
+        catalogLoaded = true;
+
+        List<Path> files = listFiles();
+        files.sort(Comparator.comparingLong(SimilarityCache::lastModified));
+        for (Path file : files) {
+            Board board = readBoard(file);
+            if (board != null) boards.add(board);
+        }
+        while (boards.size() > maxBoards) delete(boards.remove(0));
+        if (!boards.isEmpty()) {
+            System.out.println("🗄️ Similarity cache: " + boards.size() + " stored boards");
+        }
+    }
+
+    /**
+     * Layout: magic, version, key, threshold, metric, node count, sorted text hashes,
+     * edge count, then (rank, rank, similarity) per edge
+     */
+    private void write(Board board, Edges edges) {
+        Path file = fileFor(board.key);
+        Path temp;
+        try {
+            // One temp file per writer: two requests may store the same board at once
+            temp = Files.createTempFile(directory, "board", ".tmp");
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not write similarity cache file: " + e.getMessage());
+            return;
+        }
+        byte[] metric = board.metric.getBytes(StandardCharsets.UTF_8);
+        int edgeCount = edges.similarity.length;
+        ByteBuffer out = ByteBuffer.allocate(34 + metric.length + 8 * board.hashes.length + 12 * edgeCount);
+        out.putInt(MAGIC).putInt(VERSION).putLong(board.key).putDouble(board.threshold);
+        out.putShort((short) metric.length).put(metric);
+        out.putInt(board.hashes.length);
+        for (long hash : board.hashes) out.putLong(hash);
+        out.putInt(edgeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            out.putInt(edges.rankSource[e]).putInt(edges.rankTarget[e]).putFloat(edges.similarity[e]);
+        }
+        try {
+            Files.write(temp, out.array());
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not write similarity cache file: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not replace similarity cache file: " + e.getMessage());
+        }
+    }
+
+    private static Board readBoard(Path file) {
+        try {
+            MappedByteBuffer in = map(file);
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) return null;
+            long key = in.getLong();
+            double threshold = in.getDouble();
+            byte[] metric = new byte[in.getShort()];
+            in.get(metric);
+            long[] hashes = new long[in.getInt()];
+            in.asLongBuffer().get(hashes);
+            return new Board(key, new String(metric, StandardCharsets.UTF_8), threshold, hashes);
+        } catch (IOException | RuntimeException e) {
+            // Truncated or unreadable: skipped, and replaced when the board is stored again
+            return null;
+        }
+    }
+
+    private static Edges readEdges(Path file, int nodeCount) {
+        try {
+            MappedByteBuffer in = map(file);
+            in.position(24);
+            in.position(in.position() + 2 + in.getShort());
+            if (in.getInt() != nodeCount) return null;
+            in.position(in.position() + nodeCount * 8);
+            int edgeCount = in.getInt();
+            Edges edges = new Edges(new int[edgeCount], new int[edgeCount], new float[edgeCount]);
+            for (int e = 0; e < edgeCount; e++) {
+                edges.rankSource[e] = in.getInt();
+                edges.rankTarget[e] = in.getInt();
+                edges.similarity[e] = in.getFloat();
+            }
+            return edges;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private List<Path> listFiles() {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).forEach(files::add);
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not list similarity cache directory: " + e.getMessage());
+        }
+        return files;
+    }
+
+    private void delete(Board board) {
+        if (directory == null) return;
+        try {
+            Files.deleteIfExists(fileFor(board.key));
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not remove similarity cache file: " + e.getMessage());
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private Path fileFor(long key) {
+        return directory.resolve(String.format("%016x", key) + SUFFIX);
+    }
+
+    /**
+     * 64-bit FNV-1a of the (already lowercased) text
+     * Whitespace is kept as-is because edit distance counts it
+     */
+    static long textHash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * A stored board: metric, threshold floor and sorted text hashes (rank = index)
+     */
+    private record Board(long key, String metric, double threshold, long[] hashes) {
+    }
+
+    /**
+     * A stored board's edges, endpoints as ranks
+     */
+    private record Edges(int[] rankSource, int[] rankTarget, float[] similarity) {
+    }
+}
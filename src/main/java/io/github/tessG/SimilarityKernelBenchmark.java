@@ -0,0 +1,108 @@
+package io.github.tessG;
+
+import java.util.Random;
+
+/**
+ * Micro-benchmark: scalar vs Vector API dot kernel, per pair and for all-pairs scoring
+ * Build with mvn -P simd compile, then run with:
+ * java --add-modules jdk.incubator.vector -cp target/classes io.github.tessG.SimilarityKernelBenchmark [statements]
+ * Over 3000 statements hashed/SIMD scores all pairs about 6x faster than the sparse ngram merge,
+ * but real boards have under 100 posts, where both take well under a millisecond.
+ */
+public class SimilarityKernelBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int statements = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        DotKernel scalar = DotKernels.scalar();
+        DotKernel simd = DotKernels.simd();
+        if (simd == null) {
+            System.out.println("⚠️ jdk.incubator.vector not available, only the scalar kernel is measured");
+        }
+
+        // Warm up both kernels before timing
+        nanosPerPair(scalar, 256);
+        if (simd != null) nanosPerPair(simd, 256);
+
+        System.out.println("📏 Per pair (ns), random dense rows");
+        for (int dimensions : new int[]{64, 256, 1024}) {
+            double scalarNs = nanosPerPair(scalar, dimensions);
+            String line = "   " + dimensions + " dims: " + scalar.getName() + " " + String.format("%.1f", scalarNs);
+            if (simd != null) {
+                double simdNs = nanosPerPair(simd, dimensions);
+                line += ", " + simd.getName() + " " + String.format("%.1f", simdNs)
+                        + " (" + String.format("%.1fx", scalarNs / simdNs) + ")";
+            }
+            System.out.println(line);
+        }
+
+        System.out.println("📊 All pairs over " + statements + " synthetic statements (ms)");
+        String[] texts = syntheticStatements(statements);
+        allPairs("ngram (sparse)", new CharNgramCosineMetric(), texts);
+        allPairs("hashed " + scalar.getName(), new HashedNgramMetric(scalar), texts);
+        if (simd != null) {
+            allPairs("hashed " + simd.getName(), new HashedNgramMetric(simd), texts);
+        }
+    }
+
+    private static double nanosPerPair(DotKernel kernel, int dimensions) {
+        int rows = 512;
+        float[] matrix = new float[rows * dimensions];
+        Random random = new Random(1);
+        for (int k = 0; k < matrix.length; k++) matrix[k] = random.nextFloat() - 0.5f;
+
+        double best = Double.MAX_VALUE;
+        float sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                for (int j = i + 1; j < rows; j++) {
+                    sink += kernel.dot(matrix, i * dimensions, matrix, j * dimensions, dimensions);
+                }
+            }
+            long pairs = (long) rows * (rows - 1) / 2;
+            best = Math.min(best, (double) (System.nanoTime() - start) / pairs);
+        }
+        if (sink == 42f) System.out.println();
+        return best;
+    }
+
+    private static void allPairs(String label, SimilarityMetric metric, String[] texts) {
+        double best = Double.MAX_VALUE;
+        int matches = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            SimilarityMetric.Scorer scorer = metric.prepare(texts);
+            matches = 0;
+            for (int i = 0; i < texts.length; i++) {
+                for (int j = i + 1; j < texts.length; j++) {
+                    if (scorer.score(i, j, 0.3) != SimilarityMetric.NO_MATCH) matches++;
+                }
+            }
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        System.out.println("   " + label + ": " + String.format("%.1f", best) + " ms, " + matches + " pairs >= 0.3");
+    }
+
+    /**
+     * Short Danish-like feedback sentences from a small vocabulary
+     */
+    private static String[] syntheticStatements(int count) {
+        String[] words = {"mere", "feedback", "opgaver", "undervisning", "pauser", "gennemgang", "struktur",
+                "tid", "gruppearbejde", "eksempler", "kode", "projekter", "hjælp", "tavle", "online",
+                "fremmøde", "tempo", "niveau", "aflevering", "vejledning", "øvelser", "teori", "praksis"};
+        Random random = new Random(7);
+        String[] texts = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = 3 + random.nextInt(8);
+            for (int w = 0; w < length; w++) {
+                if (w > 0) text.append(' ');
+                text.append(words[random.nextInt(words.length)]);
+            }
+            texts[i] = text.toString();
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.tessG;
+
+/**
+ * Pluggable text similarity used for the statement graph
+ * Texts are prepared once per board; the returned scorer compares by index
+ */
+public interface SimilarityMetric {
+
+    /** Returned by a scorer when the pair is below the threshold */
+    double NO_MATCH = EditDistanceEngine.NO_MATCH;
+
+    String getName();
+
+    /**
+     * Convert all (lowercased) texts into the metric's internal representation
+     */
+    Scorer prepare(String[] texts);
+
+    /**
+     * True if a pair's score depends only on the two texts (not on the rest of the board)
+     * Only pairwise metrics can be updated incrementally or reused on a board with other texts
+     */
+    default boolean isPairwise() {
+        return true;
+    }
+
+    /**
+     * Compares prepared texts. Must be safe to call from several threads.
+     */
+    interface Scorer {
+        /**
+         * Similarity of texts i and j if it is >= threshold, otherwise NO_MATCH
+         */
+        double score(int i, int j, double threshold);
+    }
+}
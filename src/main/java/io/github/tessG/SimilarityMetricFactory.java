@@ -0,0 +1,29 @@
+package io.github.tessG;
+
+/**
+ * Factory for similarity metrics by name (as stored in EvaluationConfig)
+ */
+public class SimilarityMetricFactory {
+
+    public static SimilarityMetric getMetric(String name) {
+        switch (name.toLowerCase()) {
+            case LevenshteinMetric.NAME:
+            case "edit":
+                return new LevenshteinMetric();
+            case TokenJaccardMetric.NAME:
+            case "token-jaccard":
+                return new TokenJaccardMetric();
+            case TfIdfCosineMetric.NAME:
+            case "tf-idf":
+                return new TfIdfCosineMetric();
+            case CharNgramCosineMetric.NAME:
+            case "char-ngram":
+                return new CharNgramCosineMetric();
+            case HashedNgramMetric.NAME:
+            case "hashed-ngram":
+                return new HashedNgramMetric();
+            default:
+                throw new IllegalArgumentException("Unknown similarity metric: " + name);
+        }
+    }
+}
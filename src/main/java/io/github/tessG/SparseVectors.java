@@ -0,0 +1,202 @@
+package io.github.tessG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse term vectors for a set of statements
+ * Each row holds sorted int term ids with float weights, so comparing two
+ * rows is a single allocation-free merge
+ */
+public class SparseVectors {
+
+    private final int[][] ids;
+    private final float[][] weights;
+    private final int vocabularySize;
+
+    private SparseVectors(int[][] ids, float[][] weights, int vocabularySize) {
+        this.ids = ids;
+        this.weights = weights;
+        this.vocabularySize = vocabularySize;
+    }
+
+    /**
+     * Intern terms to ids and collapse duplicates into counts
+     */
+    public static SparseVectors build(List<List<String>> termsPerText) {
+        Map<String, Integer> vocabulary = new HashMap<>();
+        int[][] ids = new int[termsPerText.size()][];
+        float[][] weights = new float[termsPerText.size()][];
+
+        for (int row = 0; row < termsPerText.size(); row++) {
+            List<String> terms = termsPerText.get(row);
+            int[] raw = new int[terms.size()];
+            for (int k = 0; k < raw.length; k++) {
+                raw[k] = vocabulary.computeIfAbsent(terms.get(k), t -> vocabulary.size());
+            }
+            Arrays.sort(raw);
+
+            int unique = 0;
+            float[] counts = new float[raw.length];
+            for (int k = 0; k < raw.length; k++) {
+                if (unique > 0 && raw[unique - 1] == raw[k]) {
+                    counts[unique - 1]++;
+                } else {
+                    raw[unique] = raw[k];
+                    counts[unique] = 1f;
+                    unique++;
+                }
+            }
+            ids[row] = Arrays.copyOf(raw, unique);
+            weights[row] = Arrays.copyOf(counts, unique);
+        }
+
+        return new SparseVectors(ids, weights, vocabulary.size());
+    }
+
+    /**
+     * Split lowercased texts into words (letters and digits, incl. æøå)
+     */
+    public static List<List<String>> tokenize(String[] texts) {
+        List<List<String>> result = new ArrayList<>(texts.length);
+        for (String text : texts) {
+            List<String> tokens = new ArrayList<>();
+            int start = -1;
+            for (int i = 0; i <= text.length(); i++) {
+                boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    tokens.add(text.substring(start, i));
+                    start = -1;
+                }
+            }
+            result.add(tokens);
+        }
+        return result;
+    }
+
+    /**
+     * Character n-grams over whitespace-normalized text, padded with spaces
+     */
+    public static List<List<String>> charNgrams(String[] texts, int n) {
+        List<List<String>> result = new ArrayList<>(texts.length);
+        for (String text : texts) {
+            String padded = " " + text.trim().replaceAll("\\s+", " ") + " ";
+            List<String> grams = new ArrayList<>();
+            if (padded.length() <= n) {
+                grams.add(padded);
+            } else {
+                for (int i = 0; i + n <= padded.length(); i++) {
+                    grams.add(padded.substring(i, i + n));
+                }
+            }
+            result.add(grams);
+        }
+        return result;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int vocabularySize() {
+        return vocabularySize;
+    }
+
+    public int[] ids(int row) {
+        return ids[row];
+    }
+
+    public float[] weights(int row) {
+        return weights[row];
+    }
+
+    /**
+     * Number of distinct terms in a row
+     */
+    public int length(int row) {
+        return ids[row].length;
+    }
+
+    /**
+     * Multiply term counts by smoothed inverse document frequency
+     */
+    public void applyIdf() {
+        int[] documentFrequency = new int[vocabularySize];
+        for (int[] row : ids) {
+            for (int id : row) documentFrequency[id]++;
+        }
+        float[] idf = new float[vocabularySize];
+        for (int t = 0; t < vocabularySize; t++) {
+            idf[t] = (float) (Math.log((ids.length + 1.0) / (documentFrequency[t] + 1.0)) + 1.0);
+        }
+        for (int row = 0; row < ids.length; row++) {
+            for (int k = 0; k < ids[row].length; k++) {
+                weights[row][k] *= idf[ids[row][k]];
+            }
+        }
+    }
+
+    /**
+     * Scale every row to unit length so dot product equals cosine
+     */
+    public void normalize() {
+        for (float[] row : weights) {
+            double norm = 0;
+            for (float w : row) norm += (double) w * w;
+            if (norm == 0) continue;
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int k = 0; k < row.length; k++) row[k] *= scale;
+        }
+    }
+
+    /**
+     * Dot product of two rows (merge over sorted ids)
+     */
+    public double dot(int a, int b) {
+        int[] idsA = ids[a];
+        int[] idsB = ids[b];
+        float[] wA = weights[a];
+        float[] wB = weights[b];
+        double sum = 0;
+        int x = 0;
+        int y = 0;
+        while (x < idsA.length && y < idsB.length) {
+            if (idsA[x] == idsB[y]) {
+                sum += wA[x++] * wB[y++];
+            } else if (idsA[x] < idsB[y]) {
+                x++;
+            } else {
+                y++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Number of shared term ids between two rows
+     */
+    public int intersectionSize(int a, int b) {
+        int[] idsA = ids[a];
+        int[] idsB = ids[b];
+        int shared = 0;
+        int x = 0;
+        int y = 0;
+        while (x < idsA.length && y < idsB.length) {
+            if (idsA[x] == idsB[y]) {
+                shared++;
+                x++;
+                y++;
+            } else if (idsA[x] < idsB[y]) {
+                x++;
+            } else {
+                y++;
+            }
+        }
+        return shared;
+    }
+}
@@ -1,5 +1,7 @@
 package io.github.tessG;
 
+import java.util.List;
+
 /**
  * Unified model for evaluation statements
  * Used by both Delphi and DSC workflows
@@ -9,6 +11,7 @@ public class Statement {
     private String category;
     private int weight;
     private String comment;
+    private List<Statement> members = List.of();
     
     public Statement(String text, String category, int weight, String comment) {
         this.text = text;
@@ -17,6 +20,15 @@ public class Statement {
         this.comment = comment;
     }
     
+    /**
+     * Canonical statement standing for a group of near-duplicates (StatementDeduplicator)
+     * members are all posts in the group, this one's original included; weight is their total
+     */
+    public Statement(String text, String category, int weight, String comment, List<Statement> members) {
+        this(text, category, weight, comment);
+        this.members = List.copyOf(members);
+    }
+    
     // Constructor with default weight
     public Statement(String text, String category, String comment) {
         this(text, category, 0, comment);
@@ -49,13 +61,31 @@ public class Statement {
     }
     
     /**
-     * Get full statement including comment if present
+     * Number of posts this statement stands for (1 unless near-duplicates were collapsed into it)
+     */
+    public int getCount() {
+        return members.isEmpty() ? 1 : members.size();
+    }
+    
+    /**
+     * The collapsed posts, this statement's own included; empty if nothing was collapsed
+     */
+    public List<Statement> getMembers() {
+        return members;
+    }
+    
+    /**
+     * Get full statement including comment if present, and the post count if collapsed
      */
     public String getFullStatement() {
+        String full = text;
         if (comment != null && !comment.trim().isEmpty()) {
-            return text + " (" + comment + ")";
+            full += " (" + comment + ")";
         }
-        return text;
+        if (getCount() > 1) {
+            full += " [×" + getCount() + "]";
+        }
+        return full;
     }
     
     @Override
@@ -64,6 +94,7 @@ public class Statement {
                 "category='" + category + '\'' +
                 ", text='" + text + '\'' +
                 ", weight=" + weight +
+                ", count=" + getCount() +
                 '}';
     }
 }
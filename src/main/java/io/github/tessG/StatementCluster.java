@@ -0,0 +1,43 @@
+package io.github.tessG;
+
+import java.util.List;
+
+/**
+ * A theme found in the similarity graph: a community of statements
+ */
+public class StatementCluster {
+    private final int id;
+    private final int[] nodeIds;
+    private final List<String> keywords;
+    private final int representative;
+
+    public StatementCluster(int id, int[] nodeIds, List<String> keywords, int representative) {
+        this.id = id;
+        this.nodeIds = nodeIds;
+        this.keywords = keywords;
+        this.representative = representative;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int[] getNodeIds() {
+        return nodeIds;
+    }
+
+    public int getSize() {
+        return nodeIds.length;
+    }
+
+    public List<String> getKeywords() {
+        return keywords;
+    }
+
+    /**
+     * Node with the strongest connections inside the cluster
+     */
+    public int getRepresentative() {
+        return representative;
+    }
+}
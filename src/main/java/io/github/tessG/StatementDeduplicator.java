@@ -0,0 +1,169 @@
+package io.github.tessG;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collapses near-duplicate posts into one canonical statement
+ * Runs after parsing, before the statements reach Claude or the graph.
+ * Within each category, identical normalized texts are grouped by hash;
+ * near-identical ones are found through MinHash/LSH blocking and confirmed
+ * with edit similarity, and groups are merged with union-find. Posts whose
+ * differing words include a number or a negation/antonym are never merged
+ * ("mere gruppearbejde" vs "mindre gruppearbejde").
+ * The earliest post of a group is kept (stable across board refreshes),
+ * with the group's total votes and every post as its members.
+ */
+public class StatementDeduplicator {
+
+    // Edit similarity of normalized texts at or above which two posts count as the same
+    private static final double DUPLICATE_THRESHOLD = 0.85;
+
+    // Stricter LSH than the graph's: only pairs with high shingle overlap become candidates
+    private static final int LSH_BANDS = 16;
+    private static final int LSH_ROWS = 4;
+    private static final int LSH_SHINGLE = 3;
+
+    private static final String TEXT_CATEGORY = "Udsagn";
+
+    /**
+     * Same categories, each with its duplicates collapsed; order of first posts is kept
+     */
+    public static Map<String, List<Statement>> collapse(Map<String, List<Statement>> categorized) {
+        Map<String, List<Statement>> collapsed = new LinkedHashMap<>();
+        int before = 0;
+        int after = 0;
+        for (Map.Entry<String, List<Statement>> entry : categorized.entrySet()) {
+            List<Statement> statements = collapse(entry.getValue());
+            collapsed.put(entry.getKey(), statements);
+            before += entry.getValue().size();
+            after += statements.size();
+        }
+        report(before, after);
+        return collapsed;
+    }
+
+    /**
+     * Plain statement lists (DSC): one full statement per group, with its post count
+     */
+    public static List<String> collapseTexts(List<String> texts) {
+        List<Statement> statements = new ArrayList<>(texts.size());
+        for (String text : texts) statements.add(new Statement(text, TEXT_CATEGORY));
+        List<String> collapsed = new ArrayList<>();
+        for (Statement statement : collapse(statements)) collapsed.add(statement.getFullStatement());
+        report(texts.size(), collapsed.size());
+        return collapsed;
+    }
+
+    private static List<Statement> collapse(List<Statement> statements) {
+        int n = statements.size();
+        String[] texts = new String[n];
+        for (int i = 0; i < n; i++) texts[i] = StatementIndex.normalize(statements.get(i).getText());
+
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) parent[i] = i;
+
+        // Exact duplicates (after normalization) by hash
+        Map<String, Integer> firstByText = new HashMap<>();
+        List<Integer> distinct = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Integer first = firstByText.putIfAbsent(texts[i], i);
+            if (first != null) {
+                union(parent, first, i);
+            } else {
+                distinct.add(i);
+            }
+        }
+
+        // Near duplicates among the distinct texts: LSH candidates, confirmed with edit similarity
+        if (distinct.size() > 1) {
+            String[] distinctTexts = new String[distinct.size()];
+            for (int k = 0; k < distinctTexts.length; k++) distinctTexts[k] = texts[distinct.get(k)];
+            for (long pair : new MinHashIndex(distinctTexts, LSH_BANDS, LSH_ROWS, LSH_SHINGLE).candidatePairs()) {
+                int i = distinct.get((int) (pair >>> 32));
+                int j = distinct.get((int) pair);
+                if (find(parent, i) == find(parent, j)) continue;
+                if (EditDistanceEngine.similarityAtLeast(texts[i], texts[j], DUPLICATE_THRESHOLD)
+                        != SimilarityMetric.NO_MATCH && !differInMeaning(texts[i], texts[j])) {
+                    union(parent, i, j);
+                }
+            }
+        }
+
+        Map<Integer, List<Statement>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            groups.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(statements.get(i));
+        }
+
+        List<Statement> collapsed = new ArrayList<>(groups.size());
+        for (List<Statement> group : groups.values()) {
+            collapsed.add(group.size() == 1 ? group.get(0) : canonical(group));
+        }
+        return collapsed;
+    }
+
+    /**
+     * The group's first post, with the votes of all of them and the first comment any has
+     */
+    private static Statement canonical(List<Statement> group) {
+        Statement first = group.get(0);
+        int weight = 0;
+        String comment = "";
+        for (Statement member : group) {
+            weight += member.getWeight();
+            if (comment.isBlank() && member.getComment() != null) comment = member.getComment();
+        }
+        return new Statement(first.getText(), first.getCategory(), weight, comment, group);
+    }
+
+    /**
+     * A word only one side has is a number, a negation or an antonym
+     */
+    private static boolean differInMeaning(String a, String b) {
+        Set<String> wordsA = new HashSet<>(List.of(a.split(" ")));
+        Set<String> wordsB = new HashSet<>(List.of(b.split(" ")));
+        for (String word : wordsA) {
+            if (!wordsB.contains(word) && changesMeaning(word)) return true;
+        }
+        for (String word : wordsB) {
+            if (!wordsA.contains(word) && changesMeaning(word)) return true;
+        }
+        return false;
+    }
+
+    private static boolean changesMeaning(String word) {
+        return !word.isEmpty() && (Character.isDigit(word.charAt(0)) || ContradictionCandidates.isPolarityWord(word));
+    }
+
+    private static void report(int before, int after) {
+        if (before > after) {
+            System.out.println("🧹 Collapsed " + (before - after) + " near-duplicate posts: "
+                + before + " → " + after + " statements");
+        }
+    }
+
+    // Roots stay the earliest index, so the group's first post is found first
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) return;
+        if (rootA < rootB) {
+            parent[rootB] = rootA;
+        } else {
+            parent[rootA] = rootB;
+        }
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+}
@@ -0,0 +1,261 @@
+package io.github.tessG;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lookup from a statement quoted by Claude back to the graph node it came from
+ * Built once per run over the NodeTable. Tried in order:
+ * 1. exact hash match on normalized text
+ * 2. substring match: Aho-Corasick over all statements (statement inside the quote),
+ *    and a single scan of the joined corpus (quote inside a statement)
+ * 3. fuzzy fallback: character trigram postings scored with the Dice coefficient
+ */
+public class StatementIndex {
+
+    private static final int MIN_SUBSTRING_LENGTH = 10;
+    private static final int GRAM = 3;
+    private static final double FUZZY_THRESHOLD = 0.5;
+    private static final char SEPARATOR = '\u0001';
+
+    private final NodeTable nodes;
+    private final String[] normalized;
+    private final Map<String, Integer> exact = new HashMap<>();
+
+    // Aho-Corasick automaton over the normalized statements
+    private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+    private final List<Integer> failure = new ArrayList<>();
+    private final List<Integer> output = new ArrayList<>();      // longest statement ending at this state, -1 if none
+    private final List<Integer> outputLink = new ArrayList<>();  // next state on the failure chain with an output
+
+    // Joined corpus for "quote inside statement"
+    private final String corpus;
+    private final int[] corpusStart;
+
+    // Trigram postings for the fuzzy fallback
+    private final Map<String, int[]> postings = new HashMap<>();
+    private final int[] gramCounts;
+
+    public StatementIndex(NodeTable nodes) {
+        this.nodes = nodes;
+        int n = nodes.size();
+        this.normalized = new String[n];
+        this.corpusStart = new int[n];
+        this.gramCounts = new int[n];
+
+        StringBuilder joined = new StringBuilder();
+        Map<String, List<Integer>> gramLists = new HashMap<>();
+        newState();
+
+        for (int id = 0; id < n; id++) {
+            String text = normalize(nodes.getText(id));
+            normalized[id] = text;
+            exact.putIfAbsent(text, id);
+            insertPattern(text, id);
+
+            corpusStart[id] = joined.length();
+            joined.append(text).append(SEPARATOR);
+
+            Set<String> grams = trigrams(text);
+            gramCounts[id] = grams.size();
+            for (String gram : grams) {
+                gramLists.computeIfAbsent(gram, g -> new ArrayList<>()).add(id);
+            }
+        }
+        this.corpus = joined.toString();
+        buildFailureLinks();
+
+        for (Map.Entry<String, List<Integer>> entry : gramLists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /**
+     * Best matching node for a quoted statement, or null if nothing is close enough
+     */
+    public Match find(String statement) {
+        if (statement == null) return null;
+        String query = normalize(statement);
+        if (query.isEmpty()) return null;
+
+        Integer id = exact.get(query);
+        if (id != null) return match(id);
+
+        int contained = longestStatementIn(query);
+        if (contained >= 0) return match(contained);
+
+        int containing = shortestStatementContaining(query);
+        if (containing >= 0) return match(containing);
+
+        int fuzzy = bestFuzzyMatch(query);
+        return fuzzy >= 0 ? match(fuzzy) : null;
+    }
+
+    /**
+     * Lowercase, and collapse punctuation and whitespace runs to single spaces
+     */
+    static String normalize(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && result.length() > 0) result.append(' ');
+                result.append(Character.toLowerCase(c));
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return result.toString();
+    }
+
+    private Match match(int id) {
+        return new Match(id, nodes.getCategory(id));
+    }
+
+    /**
+     * Longest statement that occurs inside the query (Aho-Corasick scan)
+     */
+    private int longestStatementIn(String query) {
+        int best = -1;
+        int state = 0;
+        for (int i = 0; i < query.length(); i++) {
+            state = step(state, query.charAt(i));
+            for (int s = output.get(state) >= 0 ? state : outputLink.get(state); s > 0; s = outputLink.get(s)) {
+                int id = output.get(s);
+                if (normalized[id].length() < Math.min(MIN_SUBSTRING_LENGTH, query.length())) continue;
+                if (best < 0 || normalized[id].length() > normalized[best].length()) best = id;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Shortest statement that contains the query, one pass over the joined corpus
+     */
+    private int shortestStatementContaining(String query) {
+        if (query.length() < MIN_SUBSTRING_LENGTH) return -1;
+        int best = -1;
+        for (int pos = corpus.indexOf(query); pos >= 0; pos = corpus.indexOf(query, pos + 1)) {
+            int id = Arrays.binarySearch(corpusStart, pos);
+            if (id < 0) id = -id - 2;
+            if (best < 0 || normalized[id].length() < normalized[best].length()) best = id;
+        }
+        return best;
+    }
+
+    /**
+     * Highest Dice similarity over shared trigrams, counted through the postings
+     */
+    private int bestFuzzyMatch(String query) {
+        Set<String> grams = trigrams(query);
+        if (grams.isEmpty()) return -1;
+
+        int[] shared = new int[normalized.length];
+        for (String gram : grams) {
+            int[] ids = postings.get(gram);
+            if (ids == null) continue;
+            for (int id : ids) shared[id]++;
+        }
+
+        int best = -1;
+        double bestScore = FUZZY_THRESHOLD;
+        for (int id = 0; id < shared.length; id++) {
+            if (shared[id] == 0) continue;
+            double dice = 2.0 * shared[id] / (grams.size() + gramCounts[id]);
+            if (dice >= bestScore && (best < 0 || dice > bestScore)) {
+                best = id;
+                bestScore = dice;
+            }
+        }
+        return best;
+    }
+
+    private static Set<String> trigrams(String text) {
+        String padded = " " + text + " ";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private int newState() {
+        transitions.add(new HashMap<>());
+        failure.add(0);
+        output.add(-1);
+        outputLink.add(0);
+        return transitions.size() - 1;
+    }
+
+    private void insertPattern(String pattern, int id) {
+        int state = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            Integer next = transitions.get(state).get(pattern.charAt(i));
+            if (next == null) {
+                next = newState();
+                transitions.get(state).put(pattern.charAt(i), next);
+            }
+            state = next;
+        }
+        if (state > 0 && output.get(state) < 0) output.set(state, id);
+    }
+
+    /**
+     * Breadth-first failure links, plus a dictionary link to the nearest state with an output
+     */
+    private void buildFailureLinks() {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : transitions.get(0).values()) {
+            failure.set(child, 0);
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Character, Integer> edge : transitions.get(state).entrySet()) {
+                int child = edge.getValue();
+                int fail = step(failure.get(state), edge.getKey());
+                failure.set(child, fail);
+                outputLink.set(child, output.get(fail) >= 0 ? fail : outputLink.get(fail));
+                queue.add(child);
+            }
+        }
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            Integer next = transitions.get(state).get(c);
+            if (next != null) return next;
+            if (state == 0) return 0;
+            state = failure.get(state);
+        }
+    }
+
+    /**
+     * A matched graph node and its category
+     */
+    public static class Match {
+        private final int nodeId;
+        private final String category;
+
+        public Match(int nodeId, String category) {
+            this.nodeId = nodeId;
+            this.category = category;
+        }
+
+        public int getNodeId() {
+            return nodeId;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+    }
+}
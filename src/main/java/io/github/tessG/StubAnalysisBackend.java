@@ -0,0 +1,231 @@
+package io.github.tessG;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offline backend for profiling and development without an API key
+ * Answers with schema-valid JSON built from the numbered statements in the
+ * prompt. Output and simulated latency are seeded by the prompt, so the same
+ * request always gives the same answer after the same delay.
+ */
+public class StubAnalysisBackend implements AnalysisBackend {
+
+    public static final String NAME = "stub";
+
+    private static final Gson GSON = new Gson();
+    private static final Pattern NUMBERED_LINE = Pattern.compile("(?m)^\\d+\\. (.+)$");
+    private static final Pattern CANDIDATE_PAIR = Pattern.compile("(?m)^\\d+\\. \\[[^\\]]*\\] \"(.+)\" ↔ \\[[^\\]]*\\] \"(.+)\"$");
+    private static final int MAX_CONTRADICTIONS = 6;
+    private static final int SUGGESTION_COUNT = 4;
+    private static final int QUOTE_LENGTH = 80;
+
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double failureRate;
+
+    public StubAnalysisBackend(long latencyMs, long jitterMs, double failureRate) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.failureRate = failureRate;
+        System.out.println("🧪 Stub analysis backend (latency " + latencyMs + " ± " + jitterMs + " ms, "
+                + Math.round(failureRate * 100) + "% simulated overload)");
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getModel() {
+        return NAME;
+    }
+
+    /**
+     * Stub answers are cheap and would shadow real ones in the shared cache
+     */
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
+    @Override
+    public AnalysisResponse complete(AnalysisRequest request) {
+        Random random = new Random(31L * request.getFullPrompt().hashCode() + request.getKind().ordinal());
+        long latency = simulateLatency(random);
+        // Not seeded: a retry of the same prompt must be able to succeed
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new SimulatedOverloadException();
+        }
+
+        String text = answer(request, random);
+        // Token counts are estimates; the whole simulated delay is before the first byte
+        return new AnalysisResponse(text, AnalysisChunker.estimateTokens(request.getFullPrompt()),
+                AnalysisChunker.estimateTokens(text), 0, 0, latency);
+    }
+
+    private static String answer(AnalysisRequest request, Random random) {
+        List<String> statements = numberedLines(request.getFullPrompt());
+        JsonObject json = new JsonObject();
+        switch (request.getKind()) {
+            case SUMMARY:
+                addSummary(json, statements, random);
+                break;
+            case CONTRADICTIONS:
+                List<String[]> pairs = candidatePairs(request.getFullPrompt());
+                if (pairs.isEmpty()) {
+                    addContradictions(json, statements, random);
+                } else {
+                    confirmPairs(json, pairs, random);
+                }
+                break;
+            case SUGGESTIONS:
+                addSuggestions(json, statements, random);
+                break;
+            case COMBINED:
+                addSummary(json, statements, random);
+                addContradictions(json, statements, random);
+                addSuggestions(json, statements, random);
+                break;
+            case POSTER:
+                return poster(statements);
+            default:
+                throw new IllegalArgumentException("Unknown request kind: " + request.getKind());
+        }
+        return GSON.toJson(json);
+    }
+
+    @Override
+    public boolean isTransient(RuntimeException e) {
+        return e instanceof SimulatedOverloadException;
+    }
+
+    private long simulateLatency(Random random) {
+        long delay = latencyMs;
+        if (jitterMs > 0) delay += (long) ((random.nextDouble() * 2 - 1) * jitterMs);
+        if (delay <= 0) return 0;
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return delay;
+    }
+
+    private static void addSummary(JsonObject json, List<String> statements, Random random) {
+        json.addProperty("headline", "Stub-analyse af " + statements.size() + " udsagn");
+        json.addProperty("summary", "Dette er et lokalt svar uden Claude. Udsagnene er talt og citeret, ikke analyseret.");
+        json.addProperty("keyInsight", statements.isEmpty()
+            ? "Ingen udsagn i prompten"
+            : "Eksempel på et udsagn: \"" + quote(statements.get(random.nextInt(statements.size()))) + "\"");
+        json.addProperty("funnyStatement", statements.isEmpty()
+            ? "-"
+            : statements.get(random.nextInt(statements.size())));
+    }
+
+    /**
+     * Disjoint random pairs, quoted verbatim so they can be located on the poster
+     */
+    private static void addContradictions(JsonObject json, List<String> statements, Random random) {
+        List<String> shuffled = new ArrayList<>(statements);
+        Collections.shuffle(shuffled, random);
+
+        JsonArray contradictions = new JsonArray();
+        int pairs = Math.min(MAX_CONTRADICTIONS, shuffled.size() / 2);
+        for (int i = 0; i < pairs; i++) {
+            JsonObject contradiction = new JsonObject();
+            contradiction.addProperty("statement1", shuffled.get(2 * i));
+            contradiction.addProperty("statement2", shuffled.get(2 * i + 1));
+            contradiction.addProperty("tension", Math.round((0.5 + random.nextDouble() * 0.45) * 100) / 100.0);
+            contradiction.addProperty("theme", "Stub-tema " + (i + 1));
+            contradiction.addProperty("explanation", "Tilfældigt par fra stub-backenden");
+            contradictions.add(contradiction);
+        }
+        json.add("contradictions", contradictions);
+    }
+
+    /**
+     * Every other shortlisted pair, as if Claude had rejected the rest
+     */
+    private static void confirmPairs(JsonObject json, List<String[]> pairs, Random random) {
+        JsonArray contradictions = new JsonArray();
+        for (int i = 0; i < pairs.size() && contradictions.size() < MAX_CONTRADICTIONS; i += 2) {
+            JsonObject contradiction = new JsonObject();
+            contradiction.addProperty("statement1", pairs.get(i)[0]);
+            contradiction.addProperty("statement2", pairs.get(i)[1]);
+            contradiction.addProperty("tension", Math.round((0.5 + random.nextDouble() * 0.45) * 100) / 100.0);
+            contradiction.addProperty("theme", "Stub-tema " + (contradictions.size() + 1));
+            contradiction.addProperty("explanation", "Bekræftet kandidatpar fra stub-backenden");
+            contradictions.add(contradiction);
+        }
+        json.add("contradictions", contradictions);
+    }
+
+    private static void addSuggestions(JsonObject json, List<String> statements, Random random) {
+        JsonArray suggestions = new JsonArray();
+        for (int i = 0; i < SUGGESTION_COUNT; i++) {
+            suggestions.add(statements.isEmpty()
+                ? "Stub-anbefaling " + (i + 1)
+                : "Følg op på: \"" + quote(statements.get(random.nextInt(statements.size()))) + "\"");
+        }
+        json.add("suggestions", suggestions);
+    }
+
+    private static String poster(List<String> statements) {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html><html><body>");
+        html.append("<h1>Stub-plakat</h1><ul>");
+        for (String statement : statements) {
+            html.append("<li>").append(escapeHtml(statement)).append("</li>");
+        }
+        html.append("</ul></body></html>");
+        return html.toString();
+    }
+
+    private static List<String> numberedLines(String prompt) {
+        List<String> lines = new ArrayList<>();
+        Matcher matcher = NUMBERED_LINE.matcher(prompt);
+        while (matcher.find()) {
+            lines.add(matcher.group(1).trim());
+        }
+        return lines;
+    }
+
+    private static List<String[]> candidatePairs(String prompt) {
+        List<String[]> pairs = new ArrayList<>();
+        Matcher matcher = CANDIDATE_PAIR.matcher(prompt);
+        while (matcher.find()) {
+            pairs.add(new String[]{matcher.group(1), matcher.group(2)});
+        }
+        return pairs;
+    }
+
+    private static String quote(String statement) {
+        return statement.length() <= QUOTE_LENGTH ? statement : statement.substring(0, QUOTE_LENGTH) + "…";
+    }
+
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * Stand-in for a 529 overloaded response
+     */
+    private static class SimulatedOverloadException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        SimulatedOverloadException() {
+            super("Simulated 529 overloaded");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.tessG;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decoded summary: headline, summary, key insight, funny statement
+ */
+public record SummaryResult(String headline, String summary, String keyInsight, String funnyStatement) {
+
+    /**
+     * The Map shape PosterGenerator reads
+     */
+    public Map<String, String> toMap() {
+        Map<String, String> analysis = new HashMap<>();
+        analysis.put("headline", headline);
+        analysis.put("summary", summary);
+        analysis.put("keyInsight", keyInsight);
+        analysis.put("funnyStatement", funnyStatement);
+        return analysis;
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.tessG;
+
+/**
+ * Cosine similarity of TF-IDF weighted word vectors
+ * Rare words shared by two statements count more than common Danish filler words
+ */
+public class TfIdfCosineMetric implements SimilarityMetric {
+
+    public static final String NAME = "tfidf";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * IDF weights depend on the whole board
+     */
+    @Override
+    public boolean isPairwise() {
+        return false;
+    }
+
+    @Override
+    public Scorer prepare(String[] texts) {
+        SparseVectors vectors = SparseVectors.build(SparseVectors.tokenize(texts));
+        vectors.applyIdf();
+        vectors.normalize();
+        return (i, j, threshold) -> {
+            double sim = Math.min(1.0, vectors.dot(i, j));
+            return sim >= threshold ? sim : SimilarityMetric.NO_MATCH;
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.tessG;
+
+/**
+ * Token-bucket rate limiter shared by every analysis call
+ * Refills continuously at the configured rate up to the burst size. A caller
+ * that finds the bucket empty reserves the next token and sleeps until it is
+ * due, so waiting callers are served in arrival order.
+ */
+public class TokenBucket {
+
+    private final double tokensPerMs;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double tokensPerMinute, int capacity) {
+        this.tokensPerMs = tokensPerMinute / 60_000.0;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefill = System.currentTimeMillis();
+    }
+
+    /**
+     * Take one token, blocking until it is available; returns the time waited in ms
+     */
+    public long acquire() throws InterruptedException {
+        long wait = reserve();
+        if (wait > 0) Thread.sleep(wait);
+        return wait;
+    }
+
+    private synchronized long reserve() {
+        long now = System.currentTimeMillis();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerMs);
+        lastRefill = now;
+        tokens -= 1;
+        // A negative balance is the queue of callers already waiting
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerMs);
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.tessG;
+
+/**
+ * Jaccard overlap of the word sets of two statements
+ */
+public class TokenJaccardMetric implements SimilarityMetric {
+
+    public static final String NAME = "jaccard";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Scorer prepare(String[] texts) {
+        SparseVectors vectors = SparseVectors.build(SparseVectors.tokenize(texts));
+        return (i, j, threshold) -> {
+            int sizeA = vectors.length(i);
+            int sizeB = vectors.length(j);
+            if (sizeA == 0 && sizeB == 0) return texts[i].equals(texts[j]) ? 1.0 : SimilarityMetric.NO_MATCH;
+
+            // Size filter: the intersection is at most the smaller set
+            if ((double) Math.min(sizeA, sizeB) / Math.max(sizeA, sizeB) < threshold) return SimilarityMetric.NO_MATCH;
+
+            int shared = vectors.intersectionSize(i, j);
+            double sim = (double) shared / (sizeA + sizeB - shared);
+            return sim >= threshold ? sim : SimilarityMetric.NO_MATCH;
+        };
+    }
+}
@@ -21,6 +21,14 @@ import java.nio.file.Paths;
 @SpringBootApplication
 public class WebController {
 
+    private final ClaudeAnalysisService analysisService;
+    private final LlmMetrics llmMetrics;
+
+    public WebController(ClaudeAnalysisService analysisService, LlmMetrics llmMetrics) {
+        this.analysisService = analysisService;
+        this.llmMetrics = llmMetrics;
+    }
+
     public static void main(String[] args) {
         SpringApplication.run(WebController.class, args);
     }
@@ -363,6 +371,7 @@ public class WebController {
                             <option value="dare-share-care">Dare-Share-Care</option>
                             <option value="delphi">Delphi (Keep/Stop/Start)</option>
                             <option value="delphi-4">Delphi (4 categories)</option>
+                            <option value="delphi-cohort">Delphi, whole cohort (approximate from 5000 posts)</option>
                         </select>
                         
                         <label for="padletId">Padlet Board ID</label>
@@ -390,6 +399,7 @@ public class WebController {
                         <select name="evaluationType" id="csvType">
                             <option value="delphi">Keep/Stop/Start (3 categories)</option>
                             <option value="delphi-4">4 categories</option>
+                            <option value="delphi-cohort">Whole cohort (approximate from 5000 posts)</option>
                         </select>
                         
                         <button type="submit">📤 Generate from CSV</button>
@@ -479,7 +489,7 @@ public class WebController {
             }
 
             // Use GenericEvaluationWorkflow with appropriate method
-            GenericEvaluationWorkflow workflow = new GenericEvaluationWorkflow(padletApiKey);
+            GenericEvaluationWorkflow workflow = new GenericEvaluationWorkflow(padletApiKey, analysisService);
             String posterPath;
 
             // Determine which workflow to use based on evaluation type
@@ -526,7 +536,7 @@ public class WebController {
             System.out.println("💾 Saved to temp file: " + tempCsv);
 
             // Use existing DelphiDirectWorkflow
-            DelphiDirectWorkflow workflow = new DelphiDirectWorkflow();
+            DelphiDirectWorkflow workflow = new DelphiDirectWorkflow(analysisService);
             String posterPath = workflow.generatePosterFromCsv(
                     tempCsv.toString(),
                     evaluationType
@@ -547,6 +557,14 @@ public class WebController {
         }
     }
 
+    /**
+     * Background status of a draft poster: PENDING, READY or FAILED
+     */
+    @GetMapping("/poster-status/{filename}")
+    public String posterStatus(@PathVariable String filename) {
+        return PosterJobs.getStatus(filename).name();
+    }
+
     /**
      * Download endpoint for generated posters
      */
@@ -579,6 +597,7 @@ public class WebController {
         Path posterFile = Paths.get(posterPath);
         String posterHtml = Files.readString(posterFile);
         String filename = posterFile.getFileName().toString();
+        boolean draft = PosterJobs.getStatus(filename) == PosterJobs.Status.PENDING;
 
         // Detect poster type
         boolean isDelphiDashboard = posterHtml.contains("contradictory-graph") ||
@@ -670,7 +689,7 @@ public class WebController {
                 "</head>\n" +
                 "<body>\n" +
                 "    <div class=\"header\">\n" +
-                "        <h2>✅ Poster Generated Successfully!</h2>\n" +
+                "        <h2 id=\"status\">" + (draft ? "📝 Draft poster, Claude's analysis is on its way..." : "✅ Poster Generated Successfully!") + "</h2>\n" +
                 "        <div class=\"buttons\">\n" +
                 "            <a href=\"/\" class=\"btn btn-home\">🏠 Create Another</a>\n" +
                 "        </div>\n" +
@@ -678,9 +697,10 @@ public class WebController {
                 "    \n" +
                 "    <div class=\"preview-container\">\n" +
                 "        <div class=\"poster-wrapper\">\n" +
-                "            <iframe srcdoc=\"" + escapeHtmlForAttribute(posterHtml) + "\"></iframe>\n" +
+                "            <iframe id=\"poster\" srcdoc=\"" + escapeHtmlForAttribute(posterHtml) + "\"></iframe>\n" +
                 "        </div>\n" +
                 "    </div>\n" +
+                (draft ? draftPollingScript(filename) : "") +
                 "</body>\n" +
                 "</html>";
     }
@@ -738,6 +758,31 @@ public class WebController {
     /**
      * Escape HTML for use in iframe srcdoc attribute
      */
+    /**
+     * Poll the draft's background job and swap in the full poster when it is saved
+     */
+    private String draftPollingScript(String filename) {
+        String file = filename.replace("\\", "\\\\").replace("'", "\\'");
+        return "    <script>\n" +
+                "        (function poll() {\n" +
+                "            fetch('/poster-status/' + encodeURIComponent('" + file + "'))\n" +
+                "                .then(response => response.text())\n" +
+                "                .then(status => {\n" +
+                "                    if (status === 'PENDING') { setTimeout(poll, 3000); return; }\n" +
+                "                    const title = document.getElementById('status');\n" +
+                "                    if (status !== 'READY') { title.textContent = '⚠️ Claude analysis failed, showing the draft poster'; return; }\n" +
+                "                    fetch('/download/' + encodeURIComponent('" + file + "'))\n" +
+                "                        .then(response => response.text())\n" +
+                "                        .then(html => {\n" +
+                "                            document.getElementById('poster').srcdoc = html;\n" +
+                "                            title.textContent = '✅ Poster Generated Successfully!';\n" +
+                "                        });\n" +
+                "                })\n" +
+                "                .catch(() => setTimeout(poll, 3000));\n" +
+                "        })();\n" +
+                "    </script>\n";
+    }
+
     private String escapeHtmlForAttribute(String html) {
         return html.replace("&", "&amp;")
                 .replace("\"", "&quot;")
@@ -761,5 +806,13 @@ public class WebController {
             """.formatted(hasAnthropicKey, hasPadletKey);
     }
 
+    /**
+     * LLM call counters, token totals and latency histograms (Prometheus text format)
+     */
+    @GetMapping(value = "/metrics", produces = "text/plain; version=0.0.4")
+    public String metrics() {
+        return llmMetrics.render();
+    }
+
 
 }
\ No newline at end of file